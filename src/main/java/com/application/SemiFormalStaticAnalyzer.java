@@ -6,6 +6,7 @@ import com.domain.file_coupling.DependencyGraph;
 import com.domain.file_coupling.DependencyGraphOperator;
 import com.domain.nfr_taxonomy.NFRTaxonomyMap;
 import com.domain.repository_scanner.RepositoryScanner;
+import com.domain.repository_scanner.stack_analysis_core.tool.ScanTier;
 import com.infrastructure.LLM;
 import com.infrastructure.PDFBuilder;
 import com.infrastructure.Tree;
@@ -50,7 +51,7 @@ public class SemiFormalStaticAnalyzer implements ApplicationFacade {
                 emitter.next("Best fit practices inference complete.");
 
                 emitter.next("Analyzing the technology stack of the given repository...");
-                var scanner = new RepositoryScanner(filteredDirectories);
+                var scanner = new RepositoryScanner(filteredDirectories, ScanTier.configured());
                 var technologyStack = scanner.scan();
                 var languages = scanner.getAllLanguages();
                 emitter.next("Used languages: " + String.join(",", languages));
@@ -109,7 +110,7 @@ public class SemiFormalStaticAnalyzer implements ApplicationFacade {
                 emitter.next("Profile loading complete.");
 
                 emitter.next("Scanning the repository for updates...");
-                var scanner = new RepositoryScanner(filteredDirectories);
+                var scanner = new RepositoryScanner(filteredDirectories, ScanTier.configured());
                 var technologyStack = scanner.scan();
 
                 emitter.next("Updates acquired, mapping the project files to validation blocks...");
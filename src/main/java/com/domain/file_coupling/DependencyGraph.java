@@ -1,13 +1,17 @@
 package com.domain.file_coupling;
 
 import com.domain.repository_scanner.FileTechnologyStack;
+import com.infrastructure.CompactGraph;
 import com.infrastructure.Graph;
 import iu.sna.GraphCreator.FileGraph;
 import org.eclipse.jgit.lib.Repository;
 import org.eclipse.jgit.lib.RepositoryBuilder;
 
+import java.io.File;
 import java.io.IOException;
 import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
 
 public class DependencyGraph extends Graph<FileTechnologyStack, Double> {
   public DependencyGraph(
@@ -24,11 +28,17 @@ public class DependencyGraph extends Graph<FileTechnologyStack, Double> {
     // Create FileGraph and calculate dependencies
     FileGraph fileGraph = new FileGraph(filesWithoutGit, "src/main/resources" + "/application.yaml", repo);
 
+    // Index input files for constant time lookups
+    Map<File, FileTechnologyStack> fileToStack = new HashMap<>();
+    for (FileTechnologyStack file : files) {
+      fileToStack.putIfAbsent(file.file(), file);
+    }
+
     // Copy nodes (files)
     for (FileGraph.Vertex vertex : fileGraph.getNodes()) {
 
       // Find corresponding FileTechnologyStack for this vertex
-      FileTechnologyStack fileStack = files.stream().filter(f -> f.file().equals(vertex.getFilepath().toFile())).findFirst().orElse(null);
+      FileTechnologyStack fileStack = fileToStack.get(vertex.getFilepath().toFile());
 
       if (fileStack != null) {
         addNode(fileStack);
@@ -36,15 +46,18 @@ public class DependencyGraph extends Graph<FileTechnologyStack, Double> {
     }
 
     // Copy edges with weights
-    for (Graph.EdgeInfo<FileGraph.Vertex, FileGraph.Edge> edgeInfo : fileGraph.getEdges()) {
-      FileTechnologyStack source = files.stream().filter(f -> f.file().equals(edgeInfo.source().getFilepath().toFile())).findFirst().orElse(null);
+    fileGraph.forEachEdge((from, to, edge) -> {
+      FileTechnologyStack source = fileToStack.get(from.getFilepath().toFile());
 
-      FileTechnologyStack destination = files.stream().filter(f -> f.file().equals(edgeInfo.destination().getFilepath().toFile())).findFirst().orElse(
-              null);
+      FileTechnologyStack destination = fileToStack.get(to.getFilepath().toFile());
 
       if (source != null && destination != null) {
-        addEdge(source, destination, edgeInfo.edgeData().getCompoundWeight());
+        addEdge(source, destination, edge.getCompoundWeight());
       }
-    }
+    });
+  }
+
+  public CompactGraph<FileTechnologyStack> toCompactGraph() {
+    return toCompactGraph(Double::doubleValue);
   }
 }
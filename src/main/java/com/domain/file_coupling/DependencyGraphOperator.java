@@ -1,13 +1,17 @@
 package com.domain.file_coupling;
 
+import com.domain.repository_scanner.FileTechnologyStack;
+import com.infrastructure.CompactGraph;
+
 import java.io.File;
 import java.util.Collection;
 
 public class DependencyGraphOperator {
-    private final DependencyGraph graph;
+    private final CompactGraph<FileTechnologyStack> graph;
 
     public DependencyGraphOperator(DependencyGraph graph) {
-        this.graph = graph;
+        // clustering only reads the graph, so the compact form is enough
+        this.graph = graph.toCompactGraph();
     }
 
     public Iterable<Collection<File>> extractClusters(int contextSize, int maxClusters) {
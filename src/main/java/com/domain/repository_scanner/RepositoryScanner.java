@@ -1,10 +1,14 @@
 package com.domain.repository_scanner;
 
 import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
 
+import com.domain.repository_scanner.stack_analysis_core.analyzers.ScanCodeAnalyzer;
+import com.domain.repository_scanner.stack_analysis_core.tool.ScanTier;
 import com.domain.repository_scanner.stack_analysis_core.tool.StackAnalyzer;
 import com.infrastructure.Tree;
 
@@ -14,17 +18,33 @@ public class RepositoryScanner {
     private Collection<FileTechnologyStack> lastScanResult = null;
 
     public RepositoryScanner(Tree<Path> directories) {
+        this(directories, ScanTier.configured());
+    }
+
+    public RepositoryScanner(Tree<Path> directories, ScanTier tier) {
         this.directories = directories;
-        this.analyzer = new StackAnalyzer();
+        this.analyzer = new StackAnalyzer(tier);
     }
 
     public Collection<FileTechnologyStack> scan() {
-        // Analyze all files in the repository and cache result
+        // Analyze the selected directories and cache result
         Path rootPath = directories.getRoot().getData();
-        lastScanResult = analyzer.analyzeProjectFiles(rootPath.toString());
+        lastScanResult = analyzer.analyzeProjectFiles(rootPath.toString(), selectedScopes());
         return lastScanResult;
     }
 
+    /**
+     * Leaves of the directory tree are scanned with all their contents,
+     * inner directories only with their own files, so filtered out subtrees are skipped.
+     */
+    private List<ScanCodeAnalyzer.Scope> selectedScopes() {
+        Set<Path> leaves = new HashSet<>(directories.getLeaves());
+        List<ScanCodeAnalyzer.Scope> scopes = new ArrayList<>();
+        directories.traversePreOrder(directory ->
+                scopes.add(new ScanCodeAnalyzer.Scope(directory, leaves.contains(directory))));
+        return scopes;
+    }
+
     public Set<String> getAllLanguages() {
         if (lastScanResult == null) scan();
         Set<String> langs = new HashSet<>();
@@ -0,0 +1,264 @@
+package com.domain.repository_scanner.stack_analysis_core.analyzers;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Stream;
+
+import com.domain.repository_scanner.FileTechnologyStack;
+import com.domain.repository_scanner.stack_analysis_core.core.AnalysisResult;
+import com.domain.repository_scanner.stack_analysis_core.core.BasicAnalyzer;
+import com.domain.repository_scanner.stack_analysis_core.interfaces.IAnalyzer;
+
+/**
+ * Technology stack detection without external tools, for scans that only need
+ * languages and declared dependencies.
+ * Languages come from the file name, extension and shebang line using the tables of
+ * ScanCodeConfig.json, with content checks for ambiguous extensions.
+ * Dependencies come from pom.xml, build.gradle, package.json, requirements.txt,
+ * pyproject.toml and go.mod, every file also gets the package of its nearest manifest.
+ * Results have the same form as the ones of {@link ScanCodeAnalyzer}.
+ */
+public class FastStackAnalyzer extends BasicAnalyzer implements IAnalyzer {
+    // Каталоги систем контроля версий, ScanCode их тоже пропускает
+    private static final Set<String> IGNORED_DIRECTORIES = Set.of(".git", ".svn", ".hg", ".bzr", "CVS");
+    private static final int SHEBANG_BYTES = 256;
+    private static final int HEURISTIC_BYTES = 8192;
+
+    private final int parallelism;
+
+    private record Classified(Path file, String language, long size, ManifestParser.Manifest manifest) {}
+
+    public FastStackAnalyzer() {
+        this(0);
+    }
+
+    /**
+     * @param parallelism number of threads reading files, non-positive means one per core
+     */
+    public FastStackAnalyzer(int parallelism) {
+        super("FastStack");
+        this.parallelism = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+    }
+
+    /**
+     * Shares of languages by size and the declared dependencies with their manifests.
+     */
+    @Override
+    public AnalysisResult analyze(File projectDir) {
+        AnalysisResult result = new AnalysisResult();
+        List<Classified> files = classify(projectDir.toPath().toAbsolutePath().normalize(),
+                List.of(new ScanCodeAnalyzer.Scope(projectDir.toPath(), true)));
+        Map<String, Long> sizes = new HashMap<>();
+        long total = 0;
+        for (Classified file : files) {
+            if (file.language() != null) {
+                sizes.merge(file.language(), file.size(), Long::sum);
+                total += file.size();
+            }
+            if (file.manifest() != null) {
+                for (String dependency : file.manifest().dependencies()) {
+                    result.getTechnologies().put(dependency, file.file().toString());
+                }
+            }
+        }
+        Map<String, Double> percentages = new HashMap<>();
+        for (var entry : sizes.entrySet()) {
+            percentages.put(entry.getKey(), total == 0 ? 0.0 : entry.getValue() * 100.0 / total);
+        }
+        result.setLanguagePercentages(percentages);
+        return result;
+    }
+
+    public List<FileTechnologyStack> analyzeFiles(File projectDir) {
+        return analyzeFiles(projectDir, List.of(new ScanCodeAnalyzer.Scope(projectDir.toPath(), true)));
+    }
+
+    /**
+     * Analyzes only the given directories of the project.
+     * File paths start with the project directory name, as in ScanCode reports.
+     *
+     * @param projectDir project root
+     * @param scopes     directories to analyze, relative ones are resolved against the root
+     */
+    public List<FileTechnologyStack> analyzeFiles(File projectDir, Collection<ScanCodeAnalyzer.Scope> scopes) {
+        Path root = projectDir.toPath().toAbsolutePath().normalize();
+        List<Classified> files = classify(root, scopes);
+
+        // Пакеты по каталогам манифестов, чтобы приписать их вложенным файлам
+        Map<Path, String> packages = new HashMap<>();
+        for (Classified file : files) {
+            if (file.manifest() != null && file.manifest().packageTech() != null) {
+                packages.merge(file.file().getParent(), file.manifest().packageTech(), (a, b) -> a);
+            }
+        }
+
+        Path base = root.getParent() != null ? root.getParent() : root;
+        List<FileTechnologyStack> result = new ArrayList<>(files.size());
+        for (Classified file : files) {
+            Set<String> technologies = new LinkedHashSet<>();
+            for (Path directory = file.file().getParent(); directory != null && directory.startsWith(root);
+                 directory = directory.getParent()) {
+                String tech = packages.get(directory);
+                if (tech != null) {
+                    technologies.add(tech);
+                    break;
+                }
+            }
+            if (file.manifest() != null) {
+                technologies.addAll(file.manifest().dependencies());
+            }
+            result.add(new FileTechnologyStack(base.relativize(file.file()).toFile(), file.language(),
+                    new ArrayList<>(technologies)));
+        }
+        return result;
+    }
+
+    private List<Classified> classify(Path root, Collection<ScanCodeAnalyzer.Scope> scopes) {
+        List<Path> files = new ArrayList<>();
+        try {
+            for (ScanCodeAnalyzer.Scope scope : ScanCodeAnalyzer.normalizeScopes(root, scopes)) {
+                collectFiles(scope, files);
+            }
+        } catch (IOException e) {
+            System.err.println("Could not list project files: " + e.getMessage());
+            return List.of();
+        }
+
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            return pool.submit(() -> files.parallelStream().map(FastStackAnalyzer::classify).toList()).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            System.err.println("Stack analysis interrupted");
+        } catch (ExecutionException e) {
+            System.err.println("Stack analysis failed: " + e.getCause().getMessage());
+        } finally {
+            pool.shutdownNow();
+        }
+        return List.of();
+    }
+
+    private static void collectFiles(ScanCodeAnalyzer.Scope scope, List<Path> files) throws IOException {
+        if (!scope.recursive()) {
+            try (Stream<Path> children = Files.list(scope.directory())) {
+                children.filter(Files::isRegularFile).forEach(files::add);
+            }
+            return;
+        }
+        Files.walkFileTree(scope.directory(), new SimpleFileVisitor<>() {
+            @Override
+            public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) {
+                return IGNORED_DIRECTORIES.contains(String.valueOf(dir.getFileName()))
+                        ? FileVisitResult.SKIP_SUBTREE
+                        : FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                if (attrs.isRegularFile()) files.add(file);
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFileFailed(Path file, IOException exc) {
+                return FileVisitResult.CONTINUE;
+            }
+        });
+    }
+
+    private static Classified classify(Path file) {
+        long size;
+        try {
+            size = Files.size(file);
+        } catch (IOException e) {
+            size = 0;
+        }
+        ManifestParser.Manifest manifest = ManifestParser.isManifest(file) ? ManifestParser.parse(file) : null;
+        return new Classified(file, detectLanguage(file), size, manifest);
+    }
+
+    static String detectLanguage(Path file) {
+        String name = file.getFileName().toString();
+        String language = ScanCodeAnalyzer.filenameToLanguage().get(name);
+        if (language != null) return language;
+
+        String lowerName = name.toLowerCase(Locale.ROOT);
+        int dot = lowerName.lastIndexOf('.');
+        String ext = dot > 0 ? lowerName.substring(dot) : "";
+        switch (ext) {
+            case ".h" -> {
+                return looksLikeCpp(head(file, HEURISTIC_BYTES)) ? "C++" : "C";
+            }
+            case ".m" -> {
+                return looksLikeObjectiveC(head(file, HEURISTIC_BYTES)) ? "Objective-C" : "MATLAB";
+            }
+            case ".kts" -> {
+                return "Kotlin";
+            }
+            case ".gradle" -> {
+                return "Groovy";
+            }
+            default -> {
+            }
+        }
+        language = ScanCodeAnalyzer.extensionToLanguage().get(ext);
+        if (language != null) return language;
+        // Скрипты без расширения определяем по shebang
+        return ext.isEmpty() ? fromShebang(head(file, SHEBANG_BYTES)) : null;
+    }
+
+    private static String fromShebang(String head) {
+        if (!head.startsWith("#!")) return null;
+        int end = head.indexOf('\n');
+        String[] parts = head.substring(2, end < 0 ? head.length() : end).trim().split("\\s+");
+        if (parts.length == 0 || parts[0].isEmpty()) return null;
+        String interpreter = parts[0].substring(parts[0].lastIndexOf('/') + 1);
+        // #!/usr/bin/env [-S] python3
+        if (interpreter.equals("env")) {
+            interpreter = null;
+            for (int i = 1; i < parts.length && interpreter == null; i++) {
+                if (!parts[i].startsWith("-") && !parts[i].contains("=")) interpreter = parts[i];
+            }
+            if (interpreter == null) return null;
+        }
+        Map<String, String> interpreters = ScanCodeAnalyzer.interpreterToLanguage();
+        String language = interpreters.get(interpreter);
+        // python3.11, perl5
+        return language != null ? language : interpreters.get(interpreter.replaceAll("[\\d.]+$", ""));
+    }
+
+    private static boolean looksLikeCpp(String head) {
+        return head.contains("namespace ") || head.contains("template<") || head.contains("template <")
+                || head.contains("class ") || head.contains("std::") || head.contains("#include <iostream>");
+    }
+
+    private static boolean looksLikeObjectiveC(String head) {
+        return head.contains("@interface") || head.contains("@implementation") || head.contains("#import")
+                || head.contains("@property");
+    }
+
+    private static String head(Path file, int bytes) {
+        try (InputStream in = Files.newInputStream(file)) {
+            return new String(in.readNBytes(bytes), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            return "";
+        }
+    }
+}
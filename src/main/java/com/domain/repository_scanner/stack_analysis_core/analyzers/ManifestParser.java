@@ -0,0 +1,407 @@
+package com.domain.repository_scanner.stack_analysis_core.analyzers;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import javax.xml.XMLConstants;
+import javax.xml.parsers.DocumentBuilder;
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.ParserConfigurationException;
+
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+import org.xml.sax.SAXException;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Reads the declared package and dependencies of common manifests without running any build tool.
+ * Technologies are named as in ScanCode reports: the package as type:name@version,
+ * dependencies as package URLs, so both scan tiers give comparable results.
+ */
+final class ManifestParser {
+    private static final ObjectMapper mapper = new ObjectMapper();
+
+    static final Set<String> MANIFESTS = Set.of(
+            "pom.xml", "build.gradle", "build.gradle.kts", "package.json",
+            "requirements.txt", "pyproject.toml", "go.mod");
+
+    private static final Pattern PROPERTY = Pattern.compile("\\$\\{([^}]+)}");
+    // implementation 'group:name:version' и implementation("group:name:version")
+    private static final Pattern GRADLE_DEPENDENCY = Pattern.compile(
+            "\\b(?:implementation|api|compileOnly|runtimeOnly|testImplementation|testCompileOnly|testRuntimeOnly"
+                    + "|annotationProcessor|kapt|ksp|developmentOnly|classpath|compile|testCompile|runtime)"
+                    + "\\s*\\(?\\s*(?:platform\\s*\\(\\s*)?[\"']([^\"':\\s]+):([^\"':\\s]+)(?::([^\"':\\s]+))?[\"']");
+    // implementation group: 'g', name: 'n', version: 'v'
+    private static final Pattern GRADLE_MAP_DEPENDENCY = Pattern.compile(
+            "group\\s*:\\s*[\"']([^\"']+)[\"']\\s*,\\s*name\\s*:\\s*[\"']([^\"']+)[\"']"
+                    + "(?:\\s*,\\s*version\\s*:\\s*[\"']([^\"']+)[\"'])?");
+    private static final Pattern PYTHON_REQUIREMENT = Pattern.compile(
+            "^([A-Za-z0-9][A-Za-z0-9._-]*)\\s*(?:\\[[^]]*])?\\s*(?:===?\\s*([^\\s,;]+))?");
+    private static final Pattern QUOTED = Pattern.compile("\"([^\"]*)\"|'([^']*)'");
+    private static final Pattern EXACT_VERSION = Pattern.compile("^v?\\d+(\\.\\d+)*([-+][0-9A-Za-z.-]+)?$");
+
+    /**
+     * Package declared by a manifest and its dependencies.
+     *
+     * @param packageTech  package as type:name@version, null if the manifest does not name one
+     * @param dependencies dependencies as package URLs
+     */
+    record Manifest(String packageTech, List<String> dependencies) {}
+
+    private ManifestParser() {
+    }
+
+    static boolean isManifest(Path file) {
+        return MANIFESTS.contains(file.getFileName().toString());
+    }
+
+    /**
+     * Parses a manifest, returns null if it cannot be read.
+     */
+    static Manifest parse(Path file) {
+        try {
+            String name = file.getFileName().toString();
+            return switch (name) {
+                case "pom.xml" -> parsePom(file);
+                case "build.gradle", "build.gradle.kts" -> parseGradle(Files.readString(file));
+                case "package.json" -> parsePackageJson(file);
+                case "requirements.txt" -> parseRequirements(Files.readString(file));
+                case "pyproject.toml" -> parsePyproject(Files.readString(file));
+                case "go.mod" -> parseGoMod(Files.readString(file));
+                default -> null;
+            };
+        } catch (IOException | RuntimeException | ParserConfigurationException | SAXException e) {
+            System.err.println("Could not parse manifest " + file + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    private static Manifest parsePom(Path file) throws IOException, ParserConfigurationException, SAXException {
+        DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+        factory.setFeature(XMLConstants.FEATURE_SECURE_PROCESSING, true);
+        factory.setFeature("http://apache.org/xml/features/disallow-doctype-decl", true);
+        factory.setExpandEntityReferences(false);
+        DocumentBuilder builder = factory.newDocumentBuilder();
+        Document document;
+        try (InputStream in = Files.newInputStream(file)) {
+            document = builder.parse(in);
+        }
+        Element project = document.getDocumentElement();
+        Element parent = child(project, "parent");
+
+        Map<String, String> properties = new HashMap<>();
+        Element propertiesElement = child(project, "properties");
+        if (propertiesElement != null) {
+            for (Element property : children(propertiesElement)) {
+                properties.put(property.getTagName(), property.getTextContent().trim());
+            }
+        }
+        String groupId = text(project, "groupId");
+        if (groupId == null && parent != null) groupId = text(parent, "groupId");
+        String artifactId = text(project, "artifactId");
+        String version = text(project, "version");
+        if (version == null && parent != null) version = text(parent, "version");
+        putIfNotNull(properties, "project.groupId", groupId);
+        putIfNotNull(properties, "project.artifactId", artifactId);
+        putIfNotNull(properties, "project.version", version);
+
+        List<String> dependencies = new ArrayList<>();
+        if (parent != null) {
+            addMaven(dependencies, text(parent, "groupId"), text(parent, "artifactId"), text(parent, "version"), properties);
+        }
+        Element dependenciesElement = child(project, "dependencies");
+        if (dependenciesElement != null) {
+            for (Element dependency : children(dependenciesElement)) {
+                addMaven(dependencies, text(dependency, "groupId"), text(dependency, "artifactId"),
+                        text(dependency, "version"), properties);
+            }
+        }
+        String tech = artifactId == null ? null : tech("maven", artifactId, substitute(version, properties));
+        return new Manifest(tech, dependencies);
+    }
+
+    private static void addMaven(List<String> dependencies, String groupId, String artifactId,
+                                 String version, Map<String, String> properties) {
+        if (artifactId == null) return;
+        dependencies.add(purl("maven", substitute(groupId, properties), substitute(artifactId, properties),
+                substitute(version, properties)));
+    }
+
+    static Manifest parseGradle(String content) {
+        List<String> dependencies = new ArrayList<>();
+        Matcher matcher = GRADLE_DEPENDENCY.matcher(content);
+        while (matcher.find()) {
+            dependencies.add(purl("maven", matcher.group(1), matcher.group(2), matcher.group(3)));
+        }
+        matcher = GRADLE_MAP_DEPENDENCY.matcher(content);
+        while (matcher.find()) {
+            dependencies.add(purl("maven", matcher.group(1), matcher.group(2), matcher.group(3)));
+        }
+        return new Manifest(null, dependencies);
+    }
+
+    private static Manifest parsePackageJson(Path file) throws IOException {
+        JsonNode root = mapper.readTree(file.toFile());
+        if (root == null || !root.isObject()) return new Manifest(null, List.of());
+        List<String> dependencies = new ArrayList<>();
+        for (String section : List.of("dependencies", "devDependencies", "peerDependencies", "optionalDependencies")) {
+            JsonNode node = root.get(section);
+            if (node == null || !node.isObject()) continue;
+            for (var entry : node.properties()) {
+                String spec = entry.getValue().asText();
+                String version = EXACT_VERSION.matcher(spec).matches() ? spec : null;
+                dependencies.add(npmPurl(entry.getKey(), version));
+            }
+        }
+        String name = root.path("name").asText(null);
+        String version = root.path("version").asText(null);
+        return new Manifest(name == null ? null : tech("npm", name, version), dependencies);
+    }
+
+    static Manifest parseRequirements(String content) {
+        List<String> dependencies = new ArrayList<>();
+        for (String line : content.split("\\R")) {
+            String requirement = stripComment(line).trim();
+            // -r, -e, --index-url и прочие опции pip
+            if (requirement.isEmpty() || requirement.startsWith("-")) continue;
+            addPython(dependencies, requirement);
+        }
+        return new Manifest(null, dependencies);
+    }
+
+    /**
+     * Reads PEP 621 and Poetry metadata with a minimal TOML reader:
+     * only tables, string values and arrays of strings are understood.
+     */
+    static Manifest parsePyproject(String content) {
+        String table = "";
+        String name = null;
+        String version = null;
+        List<String> dependencies = new ArrayList<>();
+        String arrayKey = null;
+        int arrayDepth = 0;
+        StringBuilder array = new StringBuilder();
+        for (String rawLine : content.split("\\R")) {
+            String line = stripTomlComment(rawLine).trim();
+            if (arrayKey != null) {
+                array.append(' ').append(line);
+                // "requests[socks]>=2" не закрывает массив
+                arrayDepth = bracketDepth(line, arrayDepth);
+                if (arrayDepth <= 0) {
+                    if (arrayKey.equals("dependencies")) {
+                        for (String requirement : strings(array.toString())) addPython(dependencies, requirement);
+                    }
+                    arrayKey = null;
+                }
+                continue;
+            }
+            if (line.startsWith("[")) {
+                table = line.replaceAll("[\\[\\]\\s]", "");
+                continue;
+            }
+            int eq = line.indexOf('=');
+            if (eq < 0) continue;
+            String key = line.substring(0, eq).trim().replace("\"", "");
+            String value = line.substring(eq + 1).trim();
+            if (table.equals("project") || table.equals("tool.poetry")) {
+                if (key.equals("name")) name = unquote(value);
+                else if (key.equals("version")) version = unquote(value);
+                else if (key.equals("dependencies") && value.startsWith("[")) {
+                    arrayDepth = bracketDepth(value, 0);
+                    if (arrayDepth <= 0) {
+                        for (String requirement : strings(value)) addPython(dependencies, requirement);
+                    } else {
+                        arrayKey = key;
+                        array.setLength(0);
+                        array.append(value);
+                    }
+                }
+            } else if (table.equals("tool.poetry.dependencies") || table.equals("tool.poetry.dev-dependencies")
+                    || table.matches("tool\\.poetry\\.group\\.[^.]+\\.dependencies")) {
+                if (!key.equals("python")) {
+                    String spec = unquote(value);
+                    String exact = spec != null && EXACT_VERSION.matcher(spec).matches() ? spec : null;
+                    dependencies.add(purl("pypi", null, normalizePython(key), exact));
+                }
+            }
+        }
+        return new Manifest(name == null ? null : tech("pypi", name, version), dependencies);
+    }
+
+    static Manifest parseGoMod(String content) {
+        String module = null;
+        List<String> dependencies = new ArrayList<>();
+        boolean inRequire = false;
+        for (String rawLine : content.split("\\R")) {
+            String line = rawLine.replaceFirst("//.*", "").trim();
+            if (line.isEmpty()) continue;
+            if (inRequire) {
+                if (line.equals(")")) inRequire = false;
+                else addGo(dependencies, line);
+            } else if (line.startsWith("module ")) {
+                module = unquote(line.substring(7).trim());
+            } else if (line.startsWith("require (") || line.equals("require(")) {
+                inRequire = true;
+            } else if (line.startsWith("require ")) {
+                addGo(dependencies, line.substring(8).trim());
+            }
+        }
+        return new Manifest(module == null ? null : tech("golang", module, null), dependencies);
+    }
+
+    private static void addGo(List<String> dependencies, String requirement) {
+        String[] parts = requirement.split("\\s+");
+        if (parts.length == 0 || parts[0].isEmpty()) return;
+        dependencies.add("pkg:golang/" + parts[0] + (parts.length > 1 ? "@" + parts[1] : ""));
+    }
+
+    private static void addPython(List<String> dependencies, String requirement) {
+        Matcher matcher = PYTHON_REQUIREMENT.matcher(requirement);
+        if (matcher.find()) {
+            dependencies.add(purl("pypi", null, normalizePython(matcher.group(1)), matcher.group(2)));
+        }
+    }
+
+    private static String normalizePython(String name) {
+        return name.toLowerCase(Locale.ROOT).replaceAll("[-_.]+", "-");
+    }
+
+    private static String npmPurl(String name, String version) {
+        String encoded = name.startsWith("@") ? "%40" + name.substring(1) : name;
+        return "pkg:npm/" + encoded + (version != null ? "@" + version : "");
+    }
+
+    private static String purl(String type, String namespace, String name, String version) {
+        StringBuilder purl = new StringBuilder("pkg:").append(type).append('/');
+        if (namespace != null && !namespace.isEmpty()) {
+            purl.append(URLEncoder.encode(namespace, StandardCharsets.UTF_8)).append('/');
+        }
+        purl.append(URLEncoder.encode(name, StandardCharsets.UTF_8));
+        if (version != null && !version.isEmpty() && !version.contains("${")) {
+            purl.append('@').append(version);
+        }
+        return purl.toString();
+    }
+
+    private static String tech(String type, String name, String version) {
+        return type + ":" + name + (version != null ? ("@" + version) : "");
+    }
+
+    private static String substitute(String value, Map<String, String> properties) {
+        if (value == null) return null;
+        Matcher matcher = PROPERTY.matcher(value);
+        StringBuilder result = new StringBuilder();
+        while (matcher.find()) {
+            String replacement = properties.getOrDefault(matcher.group(1), matcher.group());
+            matcher.appendReplacement(result, Matcher.quoteReplacement(replacement));
+        }
+        matcher.appendTail(result);
+        return result.toString();
+    }
+
+    private static String stripComment(String line) {
+        int hash = line.indexOf('#');
+        return hash < 0 ? line : line.substring(0, hash);
+    }
+
+    /**
+     * Strips a TOML comment, a hash inside a quoted string is kept.
+     */
+    private static String stripTomlComment(String line) {
+        char quote = 0;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quote != 0) {
+                if (c == '\\' && quote == '"') i++;
+                else if (c == quote) quote = 0;
+            } else if (c == '"' || c == '\'') {
+                quote = c;
+            } else if (c == '#') {
+                return line.substring(0, i);
+            }
+        }
+        return line;
+    }
+
+    /**
+     * Bracket depth after the text, brackets inside quoted strings are not counted.
+     *
+     * @param depth depth before the text
+     */
+    private static int bracketDepth(String text, int depth) {
+        char quote = 0;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (quote != 0) {
+                if (c == '\\' && quote == '"') i++;
+                else if (c == quote) quote = 0;
+            } else if (c == '"' || c == '\'') {
+                quote = c;
+            } else if (c == '[') {
+                depth++;
+            } else if (c == ']') {
+                depth--;
+            }
+        }
+        return depth;
+    }
+
+    private static String unquote(String value) {
+        value = value.trim();
+        if (value.length() >= 2 && (value.charAt(0) == '"' || value.charAt(0) == '\'')
+                && value.charAt(value.length() - 1) == value.charAt(0)) {
+            return value.substring(1, value.length() - 1);
+        }
+        return value.startsWith("{") ? null : value;
+    }
+
+    private static List<String> strings(String array) {
+        List<String> values = new ArrayList<>();
+        Matcher matcher = QUOTED.matcher(array);
+        while (matcher.find()) {
+            values.add(matcher.group(1) != null ? matcher.group(1) : matcher.group(2));
+        }
+        return values;
+    }
+
+    private static void putIfNotNull(Map<String, String> map, String key, String value) {
+        if (value != null) map.put(key, value);
+    }
+
+    private static Element child(Element element, String name) {
+        for (Element child : children(element)) {
+            if (child.getTagName().equals(name)) return child;
+        }
+        return null;
+    }
+
+    private static List<Element> children(Element element) {
+        List<Element> result = new ArrayList<>();
+        for (Node node = element.getFirstChild(); node != null; node = node.getNextSibling()) {
+            if (node instanceof Element child) result.add(child);
+        }
+        return result;
+    }
+
+    private static String text(Element element, String name) {
+        Element child = child(element, name);
+        if (child == null) return null;
+        String text = child.getTextContent().trim();
+        return text.isEmpty() ? null : text;
+    }
+}
@@ -2,6 +2,11 @@ package com.domain.repository_scanner.stack_analysis_core.analyzers;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
@@ -9,8 +14,18 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
-import java.nio.file.Paths;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Stream;
 import java.nio.file.Files;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.HexFormat;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.core.type.TypeReference;
 import java.io.InputStream;
 
@@ -27,31 +42,138 @@ public class ScanCodeAnalyzer extends BasicAnalyzer implements IAnalyzer {
     public static Set<String> allProjectDependencies = new HashSet<>();
 
     private static Map<String, String> EXT_TO_LANG = null;
+    private static Map<String, String> FILENAME_TO_LANG = Map.of();
+    private static Map<String, String> INTERPRETER_TO_LANG = Map.of();
+
+    // Scan settings, the "scan" section of the config overrides them
+    private static int PROCESSES = 0;
+    private static int PARALLEL_SCANS = 2;
+    private static int TIMEOUT_SECONDS = 120;
+    private static int SHARD_FILE_THRESHOLD = 20000;
+    private static boolean CACHE = true;
+    private static String CACHE_DIRECTORY = "src/main/resources/temp/scancode-cache";
+    private static String TIER = "full";
+    // Хеш загруженного конфига, входит в ключ кеша
+    private static String CONFIG_HASH = "";
+    // Версия ScanCode, null пока не запрошена
+    private static String SCANCODE_VERSION = null;
+    // Ограничение длины командной строки, в Windows около 32 тысяч символов
+    private static final int MAX_IGNORE_PATTERNS_LENGTH = 16000;
+
+    /**
+     * Directory to scan, either with all its subdirectories or only its own files.
+     */
+    public record Scope(Path directory, boolean recursive) {}
 
-    private static void loadExtensionToLanguage() {
+    /**
+     * One ScanCode invocation: the directory with all its subdirectories except the ignored paths,
+     * or only its own files.
+     */
+    record Scan(Path directory, boolean recursive, List<Path> ignored) {}
+
+    /**
+     * Result of one ScanCode invocation.
+     *
+     * @param manifests package technologies by the path of their manifest
+     */
+    record ShardResult(List<FileTechnologyStack> files, Set<String> dependencies,
+                       Map<String, Set<String>> manifests) {}
+
+    private static synchronized void loadConfig() {
         if (EXT_TO_LANG != null) return;
         try {
             InputStream is = ScanCodeAnalyzer.class.getClassLoader().getResourceAsStream("com/domain/repository_scanner/stack_analysis_core/config/ScanCodeConfig.json");
             if (is != null) {
-                Map<String, Object> config = mapper.readValue(is, new TypeReference<Map<String, Object>>(){});
-                Object extLangObj = config.get("extension_to_language");
-                if (extLangObj instanceof Map<?,?> extLangMap) {
-                    EXT_TO_LANG = new HashMap<>();
-                    for (var entry : extLangMap.entrySet()) {
-                        EXT_TO_LANG.put(entry.getKey().toString(), entry.getValue().toString());
-                    }
-                } else {
-                    EXT_TO_LANG = Map.of();
+                byte[] bytes;
+                try (is) {
+                    bytes = is.readAllBytes();
+                }
+                CONFIG_HASH = HexFormat.of().formatHex(MessageDigest.getInstance("SHA-1").digest(bytes));
+                Map<String, Object> config = mapper.readValue(bytes, new TypeReference<Map<String, Object>>(){});
+                EXT_TO_LANG = stringMap(config.get("extension_to_language"));
+                FILENAME_TO_LANG = stringMap(config.get("filename_to_language"));
+                INTERPRETER_TO_LANG = stringMap(config.get("interpreter_to_language"));
+                if (config.get("scan") instanceof Map<?,?> scan) {
+                    if (scan.get("tier") instanceof String tier) TIER = tier;
+                    PROCESSES = intSetting(scan, "processes", PROCESSES);
+                    PARALLEL_SCANS = intSetting(scan, "parallel_scans", PARALLEL_SCANS);
+                    TIMEOUT_SECONDS = intSetting(scan, "timeout_seconds", TIMEOUT_SECONDS);
+                    SHARD_FILE_THRESHOLD = intSetting(scan, "shard_file_threshold", SHARD_FILE_THRESHOLD);
+                    if (scan.get("cache") instanceof Boolean cache) CACHE = cache;
+                    if (scan.get("cache_directory") instanceof String directory) CACHE_DIRECTORY = directory;
                 }
             } else {
                 EXT_TO_LANG = Map.of();
             }
         } catch (Exception e) {
             EXT_TO_LANG = Map.of();
-            System.err.println("Could not load extension_to_language from config: " + e.getMessage());
+            System.err.println("Could not load ScanCode config: " + e.getMessage());
         }
     }
 
+    private static Map<String, String> stringMap(Object section) {
+        if (!(section instanceof Map<?,?> map)) return Map.of();
+        Map<String, String> result = new HashMap<>();
+        for (var entry : map.entrySet()) {
+            result.put(entry.getKey().toString(), entry.getValue().toString());
+        }
+        return result;
+    }
+
+    /**
+     * Languages by lower case file extension with the dot, as in the config.
+     */
+    static Map<String, String> extensionToLanguage() {
+        loadConfig();
+        return EXT_TO_LANG;
+    }
+
+    /**
+     * Languages by exact file name, for files like Dockerfile or Makefile.
+     */
+    static Map<String, String> filenameToLanguage() {
+        loadConfig();
+        return FILENAME_TO_LANG;
+    }
+
+    /**
+     * Languages by the interpreter named in a shebang line.
+     */
+    static Map<String, String> interpreterToLanguage() {
+        loadConfig();
+        return INTERPRETER_TO_LANG;
+    }
+
+    /**
+     * Scan tier selected by the "tier" key of the "scan" section, "fast" or "full".
+     */
+    public static String configuredTier() {
+        loadConfig();
+        return TIER;
+    }
+
+    /**
+     * Output of {@code scancode --version}, empty if it cannot be run.
+     */
+    private static synchronized String scanCodeVersion() {
+        if (SCANCODE_VERSION != null) return SCANCODE_VERSION;
+        SCANCODE_VERSION = "";
+        try {
+            Process process = new ProcessBuilder("scancode", "--version").redirectErrorStream(true).start();
+            String output = new String(process.getInputStream().readAllBytes(), StandardCharsets.UTF_8).trim();
+            if (process.waitFor() == 0) SCANCODE_VERSION = output;
+        } catch (IOException e) {
+            System.err.println("Could not get the ScanCode version: " + e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return SCANCODE_VERSION;
+    }
+
+    private static int intSetting(Map<?, ?> section, String key, int defaultValue) {
+        return section.get(key) instanceof Number number ? number.intValue() : defaultValue;
+    }
+
     public ScanCodeAnalyzer() {
         super("ScanCode");
     }
@@ -62,17 +184,350 @@ public class ScanCodeAnalyzer extends BasicAnalyzer implements IAnalyzer {
     }
 
     public List<FileTechnologyStack> analyzeFiles(File projectDir) {
+        return analyzeFiles(projectDir, List.of(new Scope(projectDir.toPath(), true)));
+    }
+
+    /**
+     * Scans only the given directories of the project.
+     * The selection is scanned by one ScanCode run over the directory containing all scopes,
+     * with the files and subdirectories outside of the scopes ignored. A selection with more files
+     * than the shard threshold is split by subdirectories, the parts are scanned by concurrent
+     * ScanCode processes and merged.
+     * File paths are reported as for a scan of the whole project, starting with its name.
+     * In a git repository results of unchanged parts are taken from the cache.
+     *
+     * @param projectDir project root
+     * @param scopes     directories to scan, relative ones are resolved against the root
+     */
+    public List<FileTechnologyStack> analyzeFiles(File projectDir, Collection<Scope> scopes) {
+        loadConfig();
+        Path root = projectDir.toPath().toAbsolutePath().normalize();
+        List<Scan> scans;
+        try {
+            scans = planScans(normalizeScopes(root, scopes));
+        } catch (IOException e) {
+            System.err.println("Could not list project files: " + e.getMessage());
+            return new ArrayList<>();
+        }
+
+        List<ShardResult> results = new ArrayList<>();
+        // Results depend on the ScanCode version and on the config, e.g. the fallback languages
+        String version = CACHE ? scanCodeVersion() : "";
+        ScanCodeCache cache = CACHE && !version.isEmpty()
+                ? ScanCodeCache.open(Paths.get(CACHE_DIRECTORY), root, scans, version + "\n" + CONFIG_HASH)
+                : null;
+        try {
+            List<Scan> changed = new ArrayList<>();
+            for (Scan scan : scans) {
+                ShardResult cached = cache != null ? cache.get(scan) : null;
+                if (cached != null) {
+                    results.add(cached);
+                } else {
+                    changed.add(scan);
+                }
+            }
+            if (cache != null) {
+                System.out.println("ScanCode: " + (scans.size() - changed.size()) + " of "
+                        + scans.size() + " scan(s) unchanged, taken from the cache");
+            }
+            if (!changed.isEmpty()) {
+                runScans(root, changed, cache, results);
+            }
+        } finally {
+            if (cache != null) cache.close();
+        }
+
+        List<FileTechnologyStack> result = new ArrayList<>();
+        Set<String> dependencies = new HashSet<>();
+        for (ShardResult shardResult : results) {
+            dependencies.addAll(shardResult.dependencies());
+        }
+        attachParentPackages(results, result);
+        allProjectDependencies = dependencies;
+        return result;
+    }
+
+    /**
+     * Runs ScanCode over the scans concurrently and collects their results.
+     */
+    private static void runScans(Path root, List<Scan> scans, ScanCodeCache cache, List<ShardResult> results) {
+        int parallelScans = Math.max(1, Math.min(PARALLEL_SCANS, scans.size()));
+        int processes = PROCESSES > 0
+                ? PROCESSES
+                : Math.max(1, Runtime.getRuntime().availableProcessors() / parallelScans);
+        System.out.println("ScanCode: " + scans.size() + " scan(s), " + parallelScans
+                + " at a time with " + processes + " process(es) each");
+
+        ExecutorService executor = Executors.newFixedThreadPool(parallelScans);
+        try {
+            List<Callable<ShardResult>> tasks = new ArrayList<>();
+            for (Scan scan : scans) {
+                tasks.add(() -> runScan(root, scan, processes));
+            }
+            List<Future<ShardResult>> futures = executor.invokeAll(tasks);
+            for (int i = 0; i < scans.size(); i++) {
+                ShardResult shardResult = futures.get(i).get();
+                // Failed scans are not cached
+                if (shardResult == null) continue;
+                results.add(shardResult);
+                if (cache != null) cache.put(scans.get(i), shardResult);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            System.err.println("ScanCode execution interrupted");
+        } catch (ExecutionException e) {
+            System.err.println("ScanCode execution failed: " + e.getCause().getMessage());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Merges the results of the scans. ScanCode assembles packages within one run, so after a split
+     * the files of a subdirectory scan miss the package of a manifest in a parent directory.
+     * Such files get the packages of their nearest manifest directory if it was scanned by another run,
+     * like {@link FastStackAnalyzer} does. Packages of further manifests up the tree are not attached.
+     */
+    private static void attachParentPackages(List<ShardResult> results, List<FileTechnologyStack> merged) {
+        Map<Path, Set<String>> packages = new HashMap<>();
+        Map<Path, ShardResult> owners = new HashMap<>();
+        for (ShardResult shardResult : results) {
+            for (var manifest : shardResult.manifests().entrySet()) {
+                Path directory = Paths.get(manifest.getKey()).getParent();
+                packages.computeIfAbsent(directory, k -> new HashSet<>()).addAll(manifest.getValue());
+                owners.put(directory, shardResult);
+            }
+        }
+        for (ShardResult shardResult : results) {
+            for (FileTechnologyStack stack : shardResult.files()) {
+                Set<String> inherited = null;
+                for (Path directory = stack.file().toPath().getParent(); directory != null;
+                     directory = directory.getParent()) {
+                    if (packages.containsKey(directory)) {
+                        if (owners.get(directory) != shardResult) inherited = packages.get(directory);
+                        break;
+                    }
+                }
+                if (inherited == null || stack.technologies().containsAll(inherited)) {
+                    merged.add(stack);
+                    continue;
+                }
+                Set<String> technologies = new HashSet<>(stack.technologies());
+                technologies.addAll(inherited);
+                merged.add(new FileTechnologyStack(stack.file(), stack.language(), new ArrayList<>(technologies)));
+            }
+        }
+    }
+
+    /**
+     * Resolves the scopes against the root and drops the ones covered by another recursive scope.
+     */
+    static List<Scope> normalizeScopes(Path root, Collection<Scope> scopes) {
+        Map<Path, Boolean> directories = new HashMap<>();
+        for (Scope scope : scopes) {
+            Path directory = root.resolve(scope.directory()).normalize();
+            if (!directory.startsWith(root)) {
+                System.err.println("Skipping " + directory + ": outside of " + root);
+                continue;
+            }
+            directories.merge(directory, scope.recursive(), Boolean::logicalOr);
+        }
+        List<Scope> result = new ArrayList<>();
+        for (var entry : directories.entrySet()) {
+            boolean covered = false;
+            for (Path parent = entry.getKey().getParent(); parent != null && !covered; parent = parent.getParent()) {
+                covered = Boolean.TRUE.equals(directories.get(parent));
+            }
+            if (!covered) {
+                result.add(new Scope(entry.getKey(), entry.getValue()));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Groups the scopes into as few ScanCode runs as the shard threshold allows.
+     * The first run covers the deepest directory containing all scopes and ignores everything
+     * outside of them, a run over more files than the threshold is replaced by a run over the
+     * own files of its directory and runs over its subdirectories.
+     */
+    static List<Scan> planScans(List<Scope> scopes) throws IOException {
+        // Выбранные каталоги: true - со всем содержимым, false - только свои файлы
+        Map<Path, Boolean> selected = new HashMap<>();
+        Path common = null;
+        for (Scope scope : scopes) {
+            selected.put(scope.directory(), scope.recursive());
+            common = common == null ? scope.directory() : commonAncestor(common, scope.directory());
+        }
+        // Невыбранные каталоги на пути к выбранным
+        Set<Path> ancestors = new HashSet<>();
+        for (Path directory : selected.keySet()) {
+            for (Path parent = directory.getParent(); parent != null && parent.startsWith(common);
+                 parent = parent.getParent()) {
+                ancestors.add(parent);
+            }
+        }
+        List<Scan> scans = new ArrayList<>();
+        if (common != null) {
+            plan(common, selected, ancestors, scans);
+        }
+        return scans;
+    }
+
+    private static Path commonAncestor(Path a, Path b) {
+        Path ancestor = a;
+        while (ancestor != null && !b.startsWith(ancestor)) {
+            ancestor = ancestor.getParent();
+        }
+        return ancestor;
+    }
+
+    private static void plan(Path directory, Map<Path, Boolean> selected, Set<Path> ancestors,
+                             List<Scan> scans) throws IOException {
+        List<Path> ignored = new ArrayList<>();
+        long files = collect(directory, selected, ancestors, ignored);
+        if (files <= SHARD_FILE_THRESHOLD && ignorePatternsLength(directory, ignored) <= MAX_IGNORE_PATTERNS_LENGTH) {
+            if (files > 0) scans.add(new Scan(directory, true, ignored));
+            return;
+        }
+        Boolean mode = selected.get(directory);
+        List<Path> subdirectories = subdirectories(directory);
+        if (mode != null && hasOwnFiles(directory)) {
+            scans.add(new Scan(directory, false, List.of()));
+        }
+        for (Path subdirectory : subdirectories) {
+            if (Boolean.TRUE.equals(mode)) {
+                selected.put(subdirectory, true);
+            }
+            if (selected.containsKey(subdirectory) || ancestors.contains(subdirectory)) {
+                plan(subdirectory, selected, ancestors, scans);
+            }
+        }
+    }
+
+    /**
+     * Collects the paths a scan of the directory has to ignore to stay within the scopes.
+     *
+     * @return number of files the scan covers, counting stops shortly after the shard threshold
+     */
+    private static long collect(Path directory, Map<Path, Boolean> selected, Set<Path> ancestors,
+                                List<Path> ignored) throws IOException {
+        Boolean mode = selected.get(directory);
+        if (Boolean.TRUE.equals(mode)) {
+            return countFiles(directory, SHARD_FILE_THRESHOLD);
+        }
+        List<Path> children;
+        try (Stream<Path> list = Files.list(directory)) {
+            children = list.sorted().toList();
+        }
+        long files = 0;
+        for (Path child : children) {
+            if (Files.isDirectory(child)) {
+                // ScanCode ignores .git by default
+                if (child.getFileName().toString().equals(".git")) continue;
+                if (selected.containsKey(child) || ancestors.contains(child)) {
+                    files += collect(child, selected, ancestors, ignored);
+                } else {
+                    ignored.add(child);
+                }
+            } else if (mode != null) {
+                files++;
+            } else {
+                ignored.add(child);
+            }
+            if (files > SHARD_FILE_THRESHOLD) break;
+        }
+        return files;
+    }
+
+    private static List<Path> subdirectories(Path directory) throws IOException {
+        try (Stream<Path> children = Files.list(directory)) {
+            // ScanCode ignores .git by default, a shard for it would scan it
+            return children.filter(Files::isDirectory)
+                    .filter(child -> !child.getFileName().toString().equals(".git"))
+                    .sorted()
+                    .toList();
+        }
+    }
+
+    private static boolean hasOwnFiles(Path directory) throws IOException {
+        try (Stream<Path> children = Files.list(directory)) {
+            return children.anyMatch(child -> !Files.isDirectory(child));
+        }
+    }
+
+    /**
+     * Counts files of the directory, stopping once the limit is exceeded.
+     */
+    private static long countFiles(Path directory, long limit) throws IOException {
+        long[] count = {0};
+        Files.walkFileTree(directory, new SimpleFileVisitor<>() {
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                return ++count[0] > limit ? FileVisitResult.TERMINATE : FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFileFailed(Path file, IOException exc) {
+                return FileVisitResult.CONTINUE;
+            }
+        });
+        return count[0];
+    }
+
+    /**
+     * ScanCode --ignore patterns of the paths. ScanCode matches them with fnmatch against
+     * the resource path, which starts with the name of the scanned directory.
+     */
+    private static List<String> ignorePatterns(Path directory, List<Path> ignored) {
+        String name = String.valueOf(directory.getFileName());
+        List<String> patterns = new ArrayList<>(ignored.size());
+        for (Path path : ignored) {
+            String relative = directory.relativize(path).toString().replace(File.separatorChar, '/');
+            patterns.add(escapeGlob(name + "/" + relative));
+        }
+        return patterns;
+    }
+
+    private static int ignorePatternsLength(Path directory, List<Path> ignored) {
+        int length = 0;
+        for (String pattern : ignorePatterns(directory, ignored)) {
+            length += pattern.length() + "--ignore".length() + 2;
+        }
+        return length;
+    }
+
+    private static String escapeGlob(String path) {
+        StringBuilder escaped = new StringBuilder(path.length());
+        for (char c : path.toCharArray()) {
+            if (c == '*' || c == '?' || c == '[') {
+                escaped.append('[').append(c).append(']');
+            } else {
+                escaped.append(c);
+            }
+        }
+        return escaped.toString();
+    }
+
+    private static ShardResult runScan(Path root, Scan scan, int processes) {
         File scanCodeReport = null;
         try {
-            scanCodeReport = runScanCode(projectDir);
+            scanCodeReport = runScanCode(scan, processes);
             if (scanCodeReport == null || !scanCodeReport.exists()) {
-                System.err.println("ScanCode report not found.");
-                return new ArrayList<>();
+                System.err.println("ScanCode report not found for " + scan.directory());
+                return null;
             }
-            return parseResult(scanCodeReport);
+            // ScanCode reports paths from the scanned directory name, prefix them up to the project name
+            Path base = root.getParent() != null ? root.getParent() : root;
+            Path parent = scan.directory().getParent();
+            String prefix = parent == null || parent.equals(base) ? null : base.relativize(parent).toString();
+            Set<String> dependencies = new HashSet<>();
+            Map<String, Set<String>> manifests = new HashMap<>();
+            List<FileTechnologyStack> files = parseResult(scanCodeReport, prefix, dependencies, manifests);
+            return new ShardResult(files, dependencies, manifests);
         } catch (IOException | InterruptedException e) {
-            System.err.println("ScanCode execution failed: " + e.getMessage());
-            e.printStackTrace();
+            System.err.println("ScanCode execution failed for " + scan.directory() + ": " + e.getMessage());
+            if (e instanceof InterruptedException) Thread.currentThread().interrupt();
         } finally {
             if (scanCodeReport != null && scanCodeReport.exists()) {
                 if (!scanCodeReport.delete()) {
@@ -80,129 +535,299 @@ public class ScanCodeAnalyzer extends BasicAnalyzer implements IAnalyzer {
                 }
             }
         }
-        return new ArrayList<>();
+        return null;
     }
 
-    private File runScanCode(File projectDir) throws IOException, InterruptedException {
+    private static File runScanCode(Scan scan, int processes) throws IOException, InterruptedException {
         File outputFile = File.createTempFile("scancode_results", ".json");
         outputFile.deleteOnExit(); // Clean temp file
-    
+        File directory = scan.directory().toFile();
+
         // Launch ScanCode from CLI
-        ProcessBuilder pb = new ProcessBuilder(
+        List<String> command = new ArrayList<>(List.of(
             "scancode",
             "--package",
-            "--json-pp",
-            outputFile.getAbsolutePath(),
-            projectDir.getAbsolutePath()
-        );
-    
-        pb.directory(projectDir);
-    
+            "--processes", String.valueOf(processes),
+            "--timeout", String.valueOf(TIMEOUT_SECONDS)
+        ));
+        if (!scan.recursive()) {
+            // Only the files of the directory itself
+            command.addAll(List.of("--max-depth", "1"));
+        }
+        for (String pattern : ignorePatterns(scan.directory(), scan.ignored())) {
+            command.addAll(List.of("--ignore", pattern));
+        }
+        command.addAll(List.of("--json", outputFile.getAbsolutePath(), directory.getAbsolutePath()));
+        ProcessBuilder pb = new ProcessBuilder(command);
+
+        pb.directory(directory);
+
         // Ignore stdout of the console
         pb.redirectErrorStream(true);
         pb.redirectOutput(ProcessBuilder.Redirect.DISCARD);
-    
+
         Process process = pb.start();
-    
+
         int exitCode = process.waitFor();
         if (exitCode != 0) {
             throw new IOException("ScanCode failed with exit code " + exitCode);
         }
-    
+
         return outputFile;
     }
 
+    /**
+     * Parses a ScanCode report without loading it as a whole.
+     * The first pass reads only packages and dependencies, the second one
+     * reads files and attaches the collected technologies to them,
+     * so the memory use depends on the number of packages, not on the report size.
+     */
     public static List<FileTechnologyStack> parseResult(File jsonFile) throws IOException {
-        loadExtensionToLanguage();
-        Map<String, Object> scanData = mapper.readValue(jsonFile, Map.class);
-        List<FileTechnologyStack> result = new ArrayList<>();
+        allProjectDependencies = new HashSet<>();
+        return parseResult(jsonFile, null, allProjectDependencies, new HashMap<>());
+    }
+
+    /**
+     * Parses a ScanCode report, prefixing the file paths.
+     *
+     * @param prefix       path prepended to the reported file paths, null for none
+     * @param dependencies collects all dependencies of the report
+     * @param manifests    collects the package technologies by prefixed manifest path
+     */
+    private static List<FileTechnologyStack> parseResult(File jsonFile, String prefix,
+                                                         Set<String> dependencies,
+                                                         Map<String, Set<String>> manifests) throws IOException {
+        loadConfig();
 
         //  Collect technologies from packages
         Map<String, Set<String>> fileToTechnologies = new HashMap<>();
         Map<String, String> packageUidToTech = new HashMap<>();
-        List<Map<String, Object>> packages = (List<Map<String, Object>>) scanData.get("packages");
-        if (packages != null) {
-            for (Map<String, Object> pkg : packages) {
-                String lang = (String) pkg.get("primary_language");
-                String type = (String) pkg.get("type");
-                String name = (String) pkg.get("name");
-                String version = (String) pkg.get("version");
-                String packageUid = (String) pkg.get("package_uid");
-                List<String> datafilePaths = (List<String>) pkg.get("datafile_paths");
-                String tech = type + ":" + (name != null ? name : "") + (version != null ? ("@" + version) : "");
-                if (packageUid != null) {
-                    packageUidToTech.put(packageUid, tech);
+        // 1. Собираем зависимости из dependencies
+        Map<String, Set<String>> fileToDependencies = new HashMap<>();
+        try (JsonParser parser = mapper.getFactory().createParser(jsonFile)) {
+            forEachTopLevelField(parser, (field, p) -> {
+                if ("packages".equals(field)) {
+                    forEachObject(p, () -> readPackage(p, fileToTechnologies, packageUidToTech));
+                } else if ("dependencies".equals(field)) {
+                    forEachObject(p, () -> readDependency(p, fileToDependencies, dependencies));
+                } else {
+                    p.skipChildren();
                 }
-                if (datafilePaths != null) {
-                    for (String path : datafilePaths) {
-                        fileToTechnologies.computeIfAbsent(path, k -> new HashSet<>()).add(tech);
-                    }
+            });
+        }
+        for (var manifest : fileToTechnologies.entrySet()) {
+            manifests.put(new File(prefix, manifest.getKey()).getPath(), manifest.getValue());
+        }
+
+        //  Collect languages and technologies from files
+        List<FileTechnologyStack> result = new ArrayList<>();
+        try (JsonParser parser = mapper.getFactory().createParser(jsonFile)) {
+            forEachTopLevelField(parser, (field, p) -> {
+                if ("files".equals(field)) {
+                    forEachObject(p, () -> {
+                        FileTechnologyStack stack = readFile(p, fileToTechnologies,
+                                fileToDependencies, packageUidToTech, prefix);
+                        if (stack != null) {
+                            result.add(stack);
+                        }
+                    });
+                } else {
+                    p.skipChildren();
                 }
+            });
+        }
+        return result;
+    }
+
+    @FunctionalInterface
+    private interface FieldReader {
+        void read(String field, JsonParser parser) throws IOException;
+    }
+
+    @FunctionalInterface
+    private interface ElementReader {
+        void read() throws IOException;
+    }
+
+    /**
+     * Calls the reader for every top level field, positioned at its value.
+     * The reader has to consume the value completely.
+     */
+    private static void forEachTopLevelField(JsonParser parser, FieldReader reader) throws IOException {
+        if (parser.nextToken() != JsonToken.START_OBJECT) {
+            throw new IOException("ScanCode report is not a JSON object");
+        }
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            parser.nextToken();
+            reader.read(field, parser);
+        }
+    }
+
+    /**
+     * Calls the reader for every object of the array the parser is positioned at,
+     * the reader is positioned at the start of the object and has to consume it.
+     */
+    private static void forEachObject(JsonParser parser, ElementReader reader) throws IOException {
+        if (parser.currentToken() != JsonToken.START_ARRAY) {
+            parser.skipChildren();
+            return;
+        }
+        while (parser.nextToken() != JsonToken.END_ARRAY) {
+            if (parser.currentToken() == JsonToken.START_OBJECT) {
+                reader.read();
+            } else {
+                parser.skipChildren();
             }
         }
+    }
 
-        // 1. Собираем зависимости из dependencies
-        Map<String, Set<String>> fileToDependencies = new HashMap<>();
-        allProjectDependencies = new HashSet<>();
-        List<Map<String, Object>> dependencies = (List<Map<String, Object>>) scanData.get("dependencies");
-        if (dependencies != null) {
-            for (Map<String, Object> dep : dependencies) {
-                String depTech = (String) dep.get("purl");
-                if (depTech == null) depTech = (String) dep.get("dependency_uid");
-                if (depTech == null) continue;
-                allProjectDependencies.add(depTech);
-                String datafile = (String) dep.get("datafile_path");
-                if (datafile != null) {
-                    fileToDependencies.computeIfAbsent(datafile, k -> new HashSet<>()).add(depTech);
-                }
+    private static void readPackage(JsonParser parser,
+                                    Map<String, Set<String>> fileToTechnologies,
+                                    Map<String, String> packageUidToTech) throws IOException {
+        String type = null;
+        String name = null;
+        String version = null;
+        String packageUid = null;
+        List<String> datafilePaths = null;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            parser.nextToken();
+            switch (field) {
+                case "type" -> type = textOrNull(parser);
+                case "name" -> name = textOrNull(parser);
+                case "version" -> version = textOrNull(parser);
+                case "package_uid" -> packageUid = textOrNull(parser);
+                case "datafile_paths" -> datafilePaths = readStrings(parser);
+                default -> parser.skipChildren();
             }
         }
+        String tech = type + ":" + (name != null ? name : "") + (version != null ? ("@" + version) : "");
+        if (packageUid != null) {
+            packageUidToTech.put(packageUid, tech);
+        }
+        if (datafilePaths != null) {
+            for (String path : datafilePaths) {
+                fileToTechnologies.computeIfAbsent(path, k -> new HashSet<>()).add(tech);
+            }
+        }
+    }
 
-        //  Collect languages and technologies from files
-        List<Map<String, Object>> files = (List<Map<String, Object>>) scanData.get("files");
-        if (files != null) {
-            for (Map<String, Object> file : files) {
-                String path = (String) file.get("path");
-                if (path == null) continue;
-                // Skip directories
-                if ("directory".equals(file.get("type"))) continue;
-                String language = null;
-                if (file.containsKey("programming_language")) {
-                    Object langObj = file.get("programming_language");
-                    if (langObj instanceof Map) {
-                        Object langName = ((Map<?, ?>) langObj).get("name");
-                        if (langName != null) language = langName.toString();
-                    } else if (langObj instanceof String) {
-                        if (langObj != null) language = (String) langObj;
-                    }
-                }
-                // If language is not defined, try to get it from the extension using hash map
-                if ((language == null || language.isBlank()) && path != null) {
-                    String fileName = new File(path).getName().toLowerCase();
-                    int dot = fileName.lastIndexOf('.');
-                    String ext = (dot != -1) ? fileName.substring(dot) : "";
-                    language = EXT_TO_LANG.getOrDefault(ext, null);
-                }
-                // Package technologies
-                Set<String> technologies = new HashSet<>(fileToTechnologies.getOrDefault(path, new HashSet<>()));
-                // Добавляем зависимости для файла
-                technologies.addAll(fileToDependencies.getOrDefault(path, new HashSet<>()));
-                // Add technologies from for_packages
-                List<String> forPackages = (List<String>) file.get("for_packages");
-                if (forPackages != null) {
-                    for (String pkgUid : forPackages) {
-                        String tech = packageUidToTech.get(pkgUid);
-                        if (tech != null) {
-                            technologies.add(tech);
-                        }
-                    }
+    private static void readDependency(JsonParser parser,
+                                       Map<String, Set<String>> fileToDependencies,
+                                       Set<String> dependencies) throws IOException {
+        String purl = null;
+        String dependencyUid = null;
+        String datafile = null;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            parser.nextToken();
+            switch (field) {
+                case "purl" -> purl = textOrNull(parser);
+                case "dependency_uid" -> dependencyUid = textOrNull(parser);
+                case "datafile_path" -> datafile = textOrNull(parser);
+                default -> parser.skipChildren();
+            }
+        }
+        String depTech = purl != null ? purl : dependencyUid;
+        if (depTech == null) return;
+        dependencies.add(depTech);
+        if (datafile != null) {
+            fileToDependencies.computeIfAbsent(datafile, k -> new HashSet<>()).add(depTech);
+        }
+    }
+
+    private static FileTechnologyStack readFile(JsonParser parser,
+                                                Map<String, Set<String>> fileToTechnologies,
+                                                Map<String, Set<String>> fileToDependencies,
+                                                Map<String, String> packageUidToTech,
+                                                String prefix) throws IOException {
+        String path = null;
+        String type = null;
+        String language = null;
+        List<String> forPackages = null;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            parser.nextToken();
+            switch (field) {
+                case "path" -> path = textOrNull(parser);
+                case "type" -> type = textOrNull(parser);
+                case "programming_language" -> language = readLanguage(parser);
+                case "for_packages" -> forPackages = readStrings(parser);
+                default -> parser.skipChildren();
+            }
+        }
+        if (path == null) return null;
+        // Skip directories
+        if ("directory".equals(type)) return null;
+        // If language is not defined, try to get it from the extension using hash map
+        if (language == null || language.isBlank()) {
+            String fileName = new File(path).getName().toLowerCase();
+            int dot = fileName.lastIndexOf('.');
+            String ext = (dot != -1) ? fileName.substring(dot) : "";
+            language = EXT_TO_LANG.getOrDefault(ext, null);
+        }
+        // Package technologies
+        Set<String> technologies = new HashSet<>(fileToTechnologies.getOrDefault(path, Set.of()));
+        // Добавляем зависимости для файла
+        technologies.addAll(fileToDependencies.getOrDefault(path, Set.of()));
+        // Add technologies from for_packages
+        if (forPackages != null) {
+            for (String pkgUid : forPackages) {
+                String tech = packageUidToTech.get(pkgUid);
+                if (tech != null) {
+                    technologies.add(tech);
                 }
-                // Create FileTechnologyStack
-                FileTechnologyStack stack = new FileTechnologyStack(new File(path), language, new ArrayList<>(technologies));
-                result.add(stack);
             }
         }
-        return result;
+        return new FileTechnologyStack(new File(prefix, path), language, new ArrayList<>(technologies));
+    }
+
+    /**
+     * Reads programming_language, which is either a name or an object with a name.
+     */
+    private static String readLanguage(JsonParser parser) throws IOException {
+        if (parser.currentToken() == JsonToken.VALUE_STRING) {
+            return parser.getText();
+        }
+        if (parser.currentToken() != JsonToken.START_OBJECT) {
+            parser.skipChildren();
+            return null;
+        }
+        String language = null;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            parser.nextToken();
+            if ("name".equals(field) && parser.currentToken() != JsonToken.VALUE_NULL) {
+                language = parser.getText();
+            } else {
+                parser.skipChildren();
+            }
+        }
+        return language;
+    }
+
+    private static String textOrNull(JsonParser parser) throws IOException {
+        if (parser.currentToken().isScalarValue() && parser.currentToken() != JsonToken.VALUE_NULL) {
+            return parser.getText();
+        }
+        parser.skipChildren();
+        return null;
+    }
+
+    private static List<String> readStrings(JsonParser parser) throws IOException {
+        if (parser.currentToken() != JsonToken.START_ARRAY) {
+            parser.skipChildren();
+            return null;
+        }
+        List<String> values = new ArrayList<>();
+        while (parser.nextToken() != JsonToken.END_ARRAY) {
+            String value = textOrNull(parser);
+            if (value != null) {
+                values.add(value);
+            }
+        }
+        return values;
     }
 
     /**
@@ -0,0 +1,258 @@
+package com.domain.repository_scanner.stack_analysis_core.analyzers;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.api.Status;
+import org.eclipse.jgit.api.StatusCommand;
+import org.eclipse.jgit.api.errors.GitAPIException;
+import org.eclipse.jgit.lib.Constants;
+import org.eclipse.jgit.lib.FileMode;
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.Repository;
+import org.eclipse.jgit.revwalk.RevWalk;
+import org.eclipse.jgit.storage.file.FileRepositoryBuilder;
+import org.eclipse.jgit.treewalk.TreeWalk;
+
+import com.domain.repository_scanner.FileTechnologyStack;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Parsed ScanCode results per scan, keyed by the git tree id of the scanned directory,
+ * or by the ids of the scanned files when a part of the directory is ignored,
+ * together with the ScanCode version and the config the results were produced with.
+ * A scan is taken from the cache only if its key in HEAD matches the stored one
+ * and the working tree has no changes in the scanned files, otherwise it is run again.
+ * There is one entry per scan, a rescan replaces it.
+ */
+class ScanCodeCache {
+    private static final ObjectMapper mapper = new ObjectMapper();
+
+    private record CachedFile(String path, String language, List<String> technologies) {}
+
+    private record Entry(String tree, String tool, List<CachedFile> files, Set<String> dependencies,
+                         Map<String, Set<String>> manifests) {}
+
+    private final Path cacheDirectory;
+    private final Path projectRoot;
+    private final Repository repository;
+    private final ObjectId headTree;
+    private final String tool;
+    // Пути с изменениями относительно корня репозитория
+    private final Set<String> changedPaths = new HashSet<>();
+
+    private ScanCodeCache(Path cacheDirectory, Path projectRoot, Repository repository, ObjectId headTree,
+                          String tool) {
+        this.cacheDirectory = cacheDirectory;
+        this.projectRoot = projectRoot;
+        this.repository = repository;
+        this.headTree = headTree;
+        this.tool = tool;
+    }
+
+    /**
+     * Opens the cache for a project inside a git repository.
+     *
+     * @param cacheDirectory directory with the cache entries
+     * @param projectRoot    absolute project root
+     * @param scans          scans that are going to be run
+     * @param tool           ScanCode version and config hash, entries of other ones are outdated
+     * @return cache or null if the project is not in a repository with commits
+     */
+    static ScanCodeCache open(Path cacheDirectory, Path projectRoot, Collection<ScanCodeAnalyzer.Scan> scans,
+                              String tool) {
+        try {
+            FileRepositoryBuilder builder = new FileRepositoryBuilder().findGitDir(projectRoot.toFile());
+            if (builder.getGitDir() == null) return null;
+            Repository repository = builder.build();
+            ObjectId head = repository.resolve(Constants.HEAD);
+            if (head == null || repository.isBare()) {
+                repository.close();
+                return null;
+            }
+            ObjectId headTree;
+            try (RevWalk walk = new RevWalk(repository)) {
+                headTree = walk.parseCommit(head).getTree().getId();
+            }
+            ScanCodeCache cache = new ScanCodeCache(cacheDirectory, projectRoot, repository, headTree, tool);
+            cache.collectChanges(scans);
+            return cache;
+        } catch (IOException | GitAPIException e) {
+            System.err.println("ScanCode cache disabled: " + e.getMessage());
+            return null;
+        }
+    }
+
+    private void collectChanges(Collection<ScanCodeAnalyzer.Scan> scans) throws GitAPIException {
+        StatusCommand command = Git.wrap(repository).status();
+        for (ScanCodeAnalyzer.Scan scan : scans) {
+            String path = repositoryPath(scan.directory());
+            if (path.isEmpty()) {
+                command = Git.wrap(repository).status();
+                break;
+            }
+            command.addPath(path);
+        }
+        Status status = command.call();
+        changedPaths.addAll(status.getUncommittedChanges());
+        changedPaths.addAll(status.getUntracked());
+        changedPaths.addAll(status.getUntrackedFolders());
+    }
+
+    /**
+     * Returns the cached result of the scan, or null if it is missing or outdated.
+     */
+    ScanCodeAnalyzer.ShardResult get(ScanCodeAnalyzer.Scan scan) {
+        ObjectId tree = treeOf(scan);
+        if (tree == null) return null;
+        Path file = entryFile(scan);
+        if (!Files.isRegularFile(file)) return null;
+        try {
+            Entry entry = mapper.readValue(file.toFile(), Entry.class);
+            if (!tree.name().equals(entry.tree()) || !tool.equals(entry.tool()) || entry.manifests() == null) {
+                return null;
+            }
+            List<FileTechnologyStack> files = new ArrayList<>(entry.files().size());
+            for (CachedFile cached : entry.files()) {
+                files.add(new FileTechnologyStack(new File(cached.path()), cached.language(), cached.technologies()));
+            }
+            return new ScanCodeAnalyzer.ShardResult(files, entry.dependencies(), entry.manifests());
+        } catch (IOException e) {
+            System.err.println("Could not read ScanCode cache entry " + file + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Stores the result of the scan if the scanned files have no uncommitted changes.
+     */
+    void put(ScanCodeAnalyzer.Scan scan, ScanCodeAnalyzer.ShardResult result) {
+        ObjectId tree = treeOf(scan);
+        if (tree == null) return;
+        List<CachedFile> cached = new ArrayList<>(result.files().size());
+        for (FileTechnologyStack stack : result.files()) {
+            cached.add(new CachedFile(stack.file().getPath(), stack.language(), new ArrayList<>(stack.technologies())));
+        }
+        Path file = entryFile(scan);
+        try {
+            Files.createDirectories(cacheDirectory);
+            Path temp = Files.createTempFile(cacheDirectory, "entry", ".tmp");
+            mapper.writeValue(temp.toFile(),
+                    new Entry(tree.name(), tool, cached, result.dependencies(), result.manifests()));
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            System.err.println("Could not write ScanCode cache entry " + file + ": " + e.getMessage());
+        }
+    }
+
+    void close() {
+        repository.close();
+    }
+
+    /**
+     * Key of the scan in HEAD, null if the scanned files are not committed or have changes.
+     * For a recursive scan it is the tree id of the directory, if nothing is ignored,
+     * otherwise a hash of the paths and ids of the scanned entries.
+     */
+    private ObjectId treeOf(ScanCodeAnalyzer.Scan scan) {
+        String path = repositoryPath(scan.directory());
+        String prefix = path.isEmpty() ? "" : path + "/";
+        Set<String> ignored = new HashSet<>();
+        for (Path ignoredPath : scan.ignored()) {
+            ignored.add(repositoryPath(ignoredPath));
+        }
+        for (String changed : changedPaths) {
+            if (changed.equals(path) || !changed.startsWith(prefix) || isIgnored(changed, ignored)) continue;
+            // Own files only depend on direct children
+            if (scan.recursive() || changed.indexOf('/', prefix.length()) < 0) return null;
+        }
+        ObjectId tree;
+        if (path.isEmpty()) {
+            tree = headTree;
+        } else {
+            try (TreeWalk walk = TreeWalk.forPath(repository, path, headTree)) {
+                if (walk == null || !walk.isSubtree()) return null;
+                tree = walk.getObjectId(0);
+            } catch (IOException e) {
+                return null;
+            }
+        }
+        if (scan.recursive() && ignored.isEmpty()) return tree;
+        MessageDigest digest = Constants.newMessageDigest();
+        try {
+            hashEntries(tree, prefix, scan.recursive(), ignored, digest);
+        } catch (IOException e) {
+            return null;
+        }
+        return ObjectId.fromRaw(digest.digest());
+    }
+
+    private static boolean isIgnored(String path, Set<String> ignored) {
+        for (String prefix = path; ; prefix = prefix.substring(0, prefix.lastIndexOf('/'))) {
+            if (ignored.contains(prefix)) return true;
+            if (prefix.indexOf('/') < 0) return false;
+        }
+    }
+
+    /**
+     * Hashes the names and ids of the scanned entries of a tree, a subtree without ignored paths
+     * is hashed by its id.
+     */
+    private void hashEntries(ObjectId tree, String prefix, boolean recursive, Set<String> ignored,
+                             MessageDigest digest) throws IOException {
+        byte[] id = new byte[Constants.OBJECT_ID_LENGTH];
+        List<String> subtrees = new ArrayList<>();
+        List<ObjectId> subtreeIds = new ArrayList<>();
+        try (TreeWalk walk = new TreeWalk(repository)) {
+            walk.addTree(tree);
+            walk.setRecursive(false);
+            while (walk.next()) {
+                String path = prefix + walk.getPathString();
+                boolean subtree = walk.getFileMode(0) == FileMode.TREE;
+                if (ignored.contains(path) || (subtree && !recursive)) continue;
+                digest.update(path.getBytes(StandardCharsets.UTF_8));
+                digest.update((byte) 0);
+                walk.getObjectId(0).copyRawTo(id, 0);
+                if (subtree && ignored.stream().anyMatch(ignoredPath -> ignoredPath.startsWith(path + "/"))) {
+                    subtrees.add(path);
+                    subtreeIds.add(walk.getObjectId(0));
+                    continue;
+                }
+                digest.update(id);
+            }
+        }
+        for (int i = 0; i < subtrees.size(); i++) {
+            hashEntries(subtreeIds.get(i), subtrees.get(i) + "/", true, ignored, digest);
+        }
+    }
+
+    private String repositoryPath(Path directory) {
+        Path relative = repository.getWorkTree().toPath().toAbsolutePath().normalize().relativize(directory);
+        return relative.toString().replace(File.separatorChar, '/');
+    }
+
+    /**
+     * Entry file of a scan, the project root is a part of the name since reported paths depend on it.
+     */
+    private Path entryFile(ScanCodeAnalyzer.Scan scan) {
+        StringBuilder key = new StringBuilder().append(projectRoot).append('\n').append(scan.directory())
+                .append('\n').append(scan.recursive() ? "recursive" : "files");
+        for (Path ignored : scan.ignored()) {
+            key.append('\n').append(ignored);
+        }
+        ObjectId id = ObjectId.fromRaw(Constants.newMessageDigest().digest(key.toString().getBytes(StandardCharsets.UTF_8)));
+        return cacheDirectory.resolve(id.name() + ".json");
+    }
+}
@@ -0,0 +1,32 @@
+package com.domain.repository_scanner.stack_analysis_core.tool;
+
+import java.util.Locale;
+
+import com.domain.repository_scanner.stack_analysis_core.analyzers.ScanCodeAnalyzer;
+
+/**
+ * How thoroughly the technology stack is analyzed.
+ */
+public enum ScanTier {
+    /**
+     * Languages and declared dependencies only, detected natively in seconds.
+     */
+    FAST,
+    /**
+     * Complete ScanCode analysis of packages, languages and dependencies.
+     */
+    FULL;
+
+    /**
+     * Tier set by "scan.tier" in ScanCodeConfig.json, FULL if it is missing or unknown.
+     */
+    public static ScanTier configured() {
+        String tier = ScanCodeAnalyzer.configuredTier();
+        try {
+            return valueOf(tier.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            System.err.println("Unknown scan tier " + tier + ", using the full scan");
+            return FULL;
+        }
+    }
+}
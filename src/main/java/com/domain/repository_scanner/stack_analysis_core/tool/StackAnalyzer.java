@@ -2,19 +2,31 @@ package com.domain.repository_scanner.stack_analysis_core.tool;
 
 import java.io.File;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 
 import com.domain.repository_scanner.FileTechnologyStack;
+import com.domain.repository_scanner.stack_analysis_core.analyzers.FastStackAnalyzer;
 import com.domain.repository_scanner.stack_analysis_core.analyzers.ScanCodeAnalyzer;
 import com.domain.repository_scanner.stack_analysis_core.core.AnalysisResult;
 import com.domain.repository_scanner.stack_analysis_core.interfaces.IAnalyzer;
 
 public class StackAnalyzer {
     private final List<IAnalyzer> analyzers = new ArrayList<>();
+    private final ScanTier tier;
     
     public StackAnalyzer() {
+        this(ScanTier.configured());
+    }
+
+    public StackAnalyzer(ScanTier tier) {
+        this.tier = tier;
         // analyzers.add(new LinguistAnalyzer());
-        analyzers.add(new ScanCodeAnalyzer());
+        if (tier == ScanTier.FAST) {
+            analyzers.add(new FastStackAnalyzer());
+        } else {
+            analyzers.add(new ScanCodeAnalyzer());
+        }
         // analyzers.add(new AppInspectorAnalyzer());
     }
     
@@ -48,9 +60,20 @@ public class StackAnalyzer {
      * Анализирует проект и возвращает список FileTechnologyStack, а также выводит их на экран
      */
     public List<FileTechnologyStack> analyzeProjectFiles(String projectPath) {
-        ScanCodeAnalyzer sca = new ScanCodeAnalyzer();
-        List<FileTechnologyStack> stacks = sca.analyzeFiles(new File(projectPath));
+        List<FileTechnologyStack> stacks = tier == ScanTier.FAST
+                ? new FastStackAnalyzer().analyzeFiles(new File(projectPath))
+                : new ScanCodeAnalyzer().analyzeFiles(new File(projectPath));
         // ScanCodeAnalyzer.printAll(stacks);
         return stacks;
     }
+
+    /**
+     * Анализирует только выбранные директории проекта
+     */
+    public List<FileTechnologyStack> analyzeProjectFiles(String projectPath, Collection<ScanCodeAnalyzer.Scope> scopes) {
+        if (tier == ScanTier.FAST) {
+            return new FastStackAnalyzer().analyzeFiles(new File(projectPath), scopes);
+        }
+        return new ScanCodeAnalyzer().analyzeFiles(new File(projectPath), scopes);
+    }
 }
\ No newline at end of file
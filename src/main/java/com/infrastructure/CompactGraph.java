@@ -0,0 +1,135 @@
+package com.infrastructure;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * An immutable compressed sparse row (CSR) representation of a weighted graph.
+ * Nodes are addressed by dense int ids. The outgoing edges of a node occupy
+ * the positions from {@link #edgesBegin(int)} to {@link #edgesEnd(int)}
+ * of the target and weight columns.
+ *
+ * @param <TNode> the type of data stored in the graph nodes
+ */
+public final class CompactGraph<TNode> {
+
+    /**
+     * Receives edges during iteration.
+     */
+    @FunctionalInterface
+    public interface EdgeVisitor {
+        void visit(int source, int target, double weight);
+    }
+
+    private final Object[] nodes;
+    private final Map<TNode, Integer> ids;
+    private final int[] offsets;
+    private final int[] targets;
+    private final double[] weights;
+
+    private CompactGraph(Object[] nodes, Map<TNode, Integer> ids,
+                         int[] offsets, int[] targets, double[] weights) {
+        this.nodes = nodes;
+        this.ids = ids;
+        this.offsets = offsets;
+        this.targets = targets;
+        this.weights = weights;
+    }
+
+    /**
+     * Builds the compact form of a graph.
+     *
+     * @param graph  the graph to convert
+     * @param weight extracts the weight of an edge
+     * @return the frozen graph
+     */
+    public static <TNode, TEdge> CompactGraph<TNode> of(Graph<TNode, TEdge> graph,
+                                                        ToDoubleFunction<TEdge> weight) {
+        Object[] nodes = graph.getNodes().toArray();
+        Map<TNode, Integer> ids = new HashMap<>(nodes.length * 2);
+        for (int id = 0; id < nodes.length; id++) {
+            @SuppressWarnings("unchecked")
+            TNode node = (TNode) nodes[id];
+            ids.put(node, id);
+        }
+
+        int[] offsets = new int[nodes.length + 1];
+        graph.forEachEdge((source, destination, edgeData) -> offsets[ids.get(source) + 1]++);
+        for (int id = 0; id < nodes.length; id++) {
+            offsets[id + 1] += offsets[id];
+        }
+
+        int[] targets = new int[offsets[nodes.length]];
+        double[] weights = new double[targets.length];
+        int[] cursor = new int[nodes.length];
+        System.arraycopy(offsets, 0, cursor, 0, nodes.length);
+        graph.forEachEdge((source, destination, edgeData) -> {
+            int position = cursor[ids.get(source)]++;
+            targets[position] = ids.get(destination);
+            weights[position] = weight.applyAsDouble(edgeData);
+        });
+
+        return new CompactGraph<>(nodes, ids, offsets, targets, weights);
+    }
+
+    public int nodeCount() {
+        return nodes.length;
+    }
+
+    public int edgeCount() {
+        return targets.length;
+    }
+
+    @SuppressWarnings("unchecked")
+    public TNode node(int id) {
+        return (TNode) nodes[id];
+    }
+
+    /**
+     * Returns the id of a node, or -1 if the node is not in the graph.
+     */
+    public int idOf(TNode node) {
+        Integer id = ids.get(node);
+        return id != null ? id : -1;
+    }
+
+    /**
+     * Returns the position of the first outgoing edge of a node.
+     */
+    public int edgesBegin(int id) {
+        return offsets[id];
+    }
+
+    /**
+     * Returns the position after the last outgoing edge of a node.
+     */
+    public int edgesEnd(int id) {
+        return offsets[id + 1];
+    }
+
+    public int outDegree(int id) {
+        return offsets[id + 1] - offsets[id];
+    }
+
+    public int target(int edge) {
+        return targets[edge];
+    }
+
+    public double weight(int edge) {
+        return weights[edge];
+    }
+
+    /**
+     * Visits every edge of the graph in the order of source ids.
+     *
+     * @param visitor the callback receiving source id, target id and weight
+     */
+    public void forEachEdge(EdgeVisitor visitor) {
+        for (int source = 0; source < nodes.length; source++) {
+            for (int edge = offsets[source]; edge < offsets[source + 1]; edge++) {
+                visitor.visit(source, targets[edge], weights[edge]);
+            }
+        }
+    }
+}
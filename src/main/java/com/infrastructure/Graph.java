@@ -7,16 +7,28 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.function.ToDoubleFunction;
 
 public class Graph<TNode, TEdge> {
 
     private final Set<TNode> nodes = new HashSet<>();
     private final Map<TNode, List<Edge<TNode, TEdge>>> adjacencyList = new HashMap<>();
+    // first edge between each pair of nodes, used for constant time lookups
+    private final Map<TNode, Map<TNode, TEdge>> edgeIndex = new HashMap<>();
 
     private record Edge<D, E>(D destination, E edgeData) { }
 
     public record EdgeInfo<S, E>(S source, S destination, E edgeData) { }
 
+    /**
+     * Receives edges during iteration without allocating an {@link EdgeInfo} per edge.
+     */
+    @FunctionalInterface
+    public interface EdgeVisitor<S, E> {
+        void visit(S source, S destination, E edgeData);
+    }
+
     public void addNode(TNode node) {
         nodes.add(node);
     }
@@ -31,6 +43,46 @@ public class Graph<TNode, TEdge> {
 
         List<Edge<TNode, TEdge>> edges = adjacencyList.computeIfAbsent(source, k -> new ArrayList<>());
         edges.add(new Edge<>(destination, edgeData));
+        edgeIndex.computeIfAbsent(source, k -> new HashMap<>()).putIfAbsent(destination, edgeData);
+    }
+
+    /**
+     * Removes all edges from source to destination.
+     *
+     * @param source      the source node
+     * @param destination the destination node
+     */
+    public void removeEdge(TNode source, TNode destination) {
+        List<Edge<TNode, TEdge>> edges = adjacencyList.get(source);
+        if (edges != null) {
+            edges.removeIf(edge -> edge.destination().equals(destination));
+        }
+        Map<TNode, TEdge> outgoing = edgeIndex.get(source);
+        if (outgoing != null) {
+            outgoing.remove(destination);
+        }
+    }
+
+    /**
+     * Removes the specified nodes together with all their incoming and outgoing edges.
+     *
+     * @param removed the nodes to remove
+     */
+    public void removeNodes(Set<TNode> removed) {
+        if (removed.isEmpty()) {
+            return;
+        }
+        nodes.removeAll(removed);
+        for (TNode node : removed) {
+            adjacencyList.remove(node);
+            edgeIndex.remove(node);
+        }
+        for (List<Edge<TNode, TEdge>> edges : adjacencyList.values()) {
+            edges.removeIf(edge -> removed.contains(edge.destination()));
+        }
+        for (Map<TNode, TEdge> outgoing : edgeIndex.values()) {
+            outgoing.keySet().removeAll(removed);
+        }
     }
 
     public Set<TNode> getNodes() {
@@ -57,6 +109,54 @@ public class Graph<TNode, TEdge> {
         return result;
     }
 
+    /**
+     * Visits every edge of the graph.
+     *
+     * @param visitor the callback receiving source, destination and edge data
+     */
+    public void forEachEdge(EdgeVisitor<TNode, TEdge> visitor) {
+        for (Map.Entry<TNode, List<Edge<TNode, TEdge>>> entry : adjacencyList.entrySet()) {
+            TNode source = entry.getKey();
+            for (Edge<TNode, TEdge> edge : entry.getValue()) {
+                visitor.visit(source, edge.destination(), edge.edgeData());
+            }
+        }
+    }
+
+    /**
+     * Visits every edge leaving the specified node.
+     *
+     * @param source  the source node
+     * @param visitor the callback receiving destination and edge data
+     */
+    public void forEachOutgoingEdge(TNode source, BiConsumer<TNode, TEdge> visitor) {
+        for (Edge<TNode, TEdge> edge : adjacencyList.getOrDefault(source, Collections.emptyList())) {
+            visitor.accept(edge.destination(), edge.edgeData());
+        }
+    }
+
+    /**
+     * Returns the data of the first edge added between two nodes.
+     *
+     * @param source      the source node
+     * @param destination the destination node
+     * @return the edge data, or null if the nodes are not connected
+     */
+    public TEdge getEdge(TNode source, TNode destination) {
+        Map<TNode, TEdge> outgoing = edgeIndex.get(source);
+        return outgoing != null ? outgoing.get(destination) : null;
+    }
+
+    /**
+     * Returns an immutable compact copy of the graph for read-only processing.
+     *
+     * @param weight extracts the weight of an edge
+     * @return the compact graph
+     */
+    public CompactGraph<TNode> toCompactGraph(ToDoubleFunction<TEdge> weight) {
+        return CompactGraph.of(this, weight);
+    }
+
     public boolean containsNode(TNode node) {
         return nodes.contains(node);
     }
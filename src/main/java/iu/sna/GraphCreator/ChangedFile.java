@@ -11,7 +11,7 @@ public class ChangedFile {
   Path path;
 
 
-  Integer changedLines;
+  int changedLines;
 
 
   public ChangedFile(Path filepath, int changes) {
@@ -0,0 +1,144 @@
+package iu.sna.GraphCreator;
+
+import java.util.Arrays;
+
+/**
+ * Co-change counters of file pairs in primitive arrays.
+ * Pairs are unordered, a pair of vertex ids is packed into one long key
+ * of an open-addressing table with linear probing, the counters are
+ * kept in parallel double arrays. No object is allocated per pair or
+ * per commit, so long histories fit into a small heap. A commit counts
+ * with a weight, so sampled mass commits can count less than one.
+ */
+public final class CoChangeAccumulator {
+  /**
+   * Marks free slots, packed keys of non-negative ids are never negative.
+   */
+  private static final long FREE = -1L;
+
+  private long[] keys;
+  private double[] commonCommits;
+  private double[] commonLines;
+
+  /**
+   * Number of occupied slots.
+   */
+  private int size;
+
+  /**
+   * Create an empty accumulator.
+   */
+  public CoChangeAccumulator() {
+    allocate(1024);
+  }
+
+  /**
+   * Count a commit changing both files of a pair.
+   *
+   * @param first        id of the first vertex
+   * @param second       id of the second vertex
+   * @param changedLines common changed lines of the commit
+   * @param weight       weight of the commit, 1 for a regular commit
+   */
+  public void add(final int first, final int second, final int changedLines,
+                  final double weight) {
+    if ((size + 1) * 4L > keys.length * 3L) {
+      grow();
+    }
+    long key = pack(first, second);
+    int slot = find(key);
+    if (keys[slot] == FREE) {
+      keys[slot] = key;
+      size++;
+    }
+    commonCommits[slot] += weight;
+    commonLines[slot] += changedLines * weight;
+  }
+
+  /**
+   * Get the number of commits changing both files.
+   *
+   * @param first  id of the first vertex
+   * @param second id of the second vertex
+   * @return weighted number of common commits, 0 for an unknown pair
+   */
+  public double getCommonCommits(final int first, final int second) {
+    int slot = find(pack(first, second));
+    return keys[slot] == FREE ? 0 : commonCommits[slot];
+  }
+
+  /**
+   * Get the number of lines changed in both files by common commits.
+   *
+   * @param first  id of the first vertex
+   * @param second id of the second vertex
+   * @return weighted number of common changed lines, 0 for an unknown pair
+   */
+  public double getCommonLines(final int first, final int second) {
+    int slot = find(pack(first, second));
+    return keys[slot] == FREE ? 0 : commonLines[slot];
+  }
+
+  /**
+   * Get the number of pairs with counters.
+   *
+   * @return number of pairs
+   */
+  public int size() {
+    return size;
+  }
+
+  /**
+   * Drop all counters and release the grown arrays.
+   */
+  public void clear() {
+    allocate(1024);
+  }
+
+  private static long pack(final int first, final int second) {
+    int low = Math.min(first, second);
+    int high = Math.max(first, second);
+    return ((long) low << 32) | (high & 0xFFFFFFFFL);
+  }
+
+  private int find(final long key) {
+    int mask = keys.length - 1;
+    int slot = mix(key) & mask;
+    while (keys[slot] != FREE && keys[slot] != key) {
+      slot = (slot + 1) & mask;
+    }
+    return slot;
+  }
+
+  /**
+   * Spread the key bits, ids are dense and would cluster otherwise.
+   */
+  private static int mix(final long key) {
+    long h = key * 0x9E3779B97F4A7C15L;
+    return (int) (h ^ (h >>> 32));
+  }
+
+  private void allocate(final int capacity) {
+    keys = new long[capacity];
+    Arrays.fill(keys, FREE);
+    commonCommits = new double[capacity];
+    commonLines = new double[capacity];
+    size = 0;
+  }
+
+  private void grow() {
+    long[] oldKeys = keys;
+    double[] oldCommits = commonCommits;
+    double[] oldLines = commonLines;
+    allocate(oldKeys.length * 2);
+    for (int i = 0; i < oldKeys.length; i++) {
+      if (oldKeys[i] != FREE) {
+        int slot = find(oldKeys[i]);
+        keys[slot] = oldKeys[i];
+        commonCommits[slot] = oldCommits[i];
+        commonLines[slot] = oldLines[i];
+        size++;
+      }
+    }
+  }
+}
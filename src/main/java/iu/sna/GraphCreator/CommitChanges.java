@@ -0,0 +1,18 @@
+package iu.sna.GraphCreator;
+
+import org.eclipse.jgit.lib.ObjectId;
+
+import java.util.List;
+
+/**
+ * Files changed by one commit.
+ *
+ * @param commitId     commit id
+ * @param commitTime   commit time in seconds since the epoch
+ * @param authorEmail  email of the commit author
+ * @param changedFiles changed files and number of changed lines
+ */
+public record CommitChanges(ObjectId commitId, int commitTime,
+                            String authorEmail,
+                            List<ChangedFile> changedFiles) {
+}
@@ -0,0 +1,231 @@
+package iu.sna.GraphCreator;
+
+import org.eclipse.jgit.lib.Constants;
+import org.eclipse.jgit.lib.ObjectId;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UTFDataFormatException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Persistent cache of changed files per commit.
+ * Commits are immutable, so the changes of a commit diffed with the
+ * same settings never change. Entries are kept in one binary file,
+ * the least recently used ones are evicted above the size cap.
+ */
+public final class CommitChangesCache {
+  /**
+   * Marks cache files, reads "CCCH".
+   */
+  private static final int MAGIC = 0x43434348;
+
+  /**
+   * Format version, increase on every layout change.
+   */
+  private static final int VERSION = 2;
+
+  /**
+   * Estimated size of an entry without its paths.
+   */
+  private static final int ENTRY_OVERHEAD = 2 * Constants.OBJECT_ID_LENGTH + 4;
+
+  /**
+   * Cache file.
+   */
+  private final Path file;
+
+  /**
+   * Maximum estimated size of all entries in bytes.
+   */
+  private final long maxBytes;
+
+  /**
+   * Entries in access order, the eldest is evicted first.
+   */
+  private final LinkedHashMap<Key, List<ChangedFile>> entries =
+          new LinkedHashMap<>(16, 0.75f, true);
+
+  /**
+   * Estimated size of all entries in bytes.
+   */
+  private long size;
+
+  /**
+   * Whether there are entries not written to the file yet.
+   */
+  private boolean dirty;
+
+  /**
+   * Commit diffed with a given settings description.
+   *
+   * @param commit   commit id
+   * @param settings SHA-1 of the diff settings description
+   */
+  private record Key(ObjectId commit, ObjectId settings) {
+  }
+
+  /**
+   * Open a cache, loading the entries stored in the file.
+   * A missing, truncated or corrupt file or a file in another format
+   * version gives an empty cache.
+   *
+   * @param cacheFile cache file
+   * @param maxSize   maximum size of the entries in bytes
+   * @throws IOException if the file exists but cannot be read
+   */
+  public CommitChangesCache(final Path cacheFile, final long maxSize)
+          throws IOException {
+    this.file = cacheFile;
+    this.maxBytes = maxSize;
+    load();
+  }
+
+  /**
+   * Get cached changes of a commit.
+   *
+   * @param commit   commit id
+   * @param settings description of the settings the commit is diffed with
+   * @return changed files or null if the commit is not cached
+   */
+  public synchronized List<ChangedFile> get(final ObjectId commit,
+                                            final String settings) {
+    return entries.get(new Key(commit.copy(), hash(settings)));
+  }
+
+  /**
+   * Store changes of a commit, evicting the least recently used entries
+   * when the cache grows over its size cap.
+   *
+   * @param commit   commit id
+   * @param settings description of the settings the commit was diffed with
+   * @param changes  changed files of the commit
+   */
+  public synchronized void put(final ObjectId commit, final String settings,
+                               final List<ChangedFile> changes) {
+    List<ChangedFile> previous = entries.put(
+            new Key(commit.copy(), hash(settings)), List.copyOf(changes));
+    if (previous != null) {
+      size -= estimateSize(previous);
+    }
+    size += estimateSize(changes);
+    dirty = true;
+    evict();
+  }
+
+  /**
+   * Write the cache if it was changed, replacing the file atomically.
+   *
+   * @throws IOException if the file cannot be written
+   */
+  public synchronized void save() throws IOException {
+    if (!dirty) {
+      return;
+    }
+    Files.createDirectories(file.toAbsolutePath().getParent());
+    Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+    try (DataOutputStream out = new DataOutputStream(
+            new BufferedOutputStream(Files.newOutputStream(temp)))) {
+      out.writeInt(MAGIC);
+      out.writeInt(VERSION);
+      out.writeInt(entries.size());
+      byte[] id = new byte[Constants.OBJECT_ID_LENGTH];
+      // от старых к новым, чтобы порядок LRU сохранился при загрузке
+      for (Map.Entry<Key, List<ChangedFile>> entry : entries.entrySet()) {
+        entry.getKey().commit().copyRawTo(id, 0);
+        out.write(id);
+        entry.getKey().settings().copyRawTo(id, 0);
+        out.write(id);
+        out.writeInt(entry.getValue().size());
+        for (ChangedFile changedFile : entry.getValue()) {
+          out.writeUTF(changedFile.getPath().toString());
+          out.writeInt(changedFile.getChangedLines());
+        }
+      }
+    }
+    Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING,
+            StandardCopyOption.ATOMIC_MOVE);
+    dirty = false;
+  }
+
+  private void load() throws IOException {
+    if (!Files.isRegularFile(file)) {
+      return;
+    }
+    try (DataInputStream in = new DataInputStream(
+            new BufferedInputStream(Files.newInputStream(file)))) {
+      if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+        return;
+      }
+      int count = in.readInt();
+      byte[] id = new byte[Constants.OBJECT_ID_LENGTH];
+      for (int i = 0; i < count; i++) {
+        in.readFully(id);
+        ObjectId commit = ObjectId.fromRaw(id);
+        in.readFully(id);
+        Key key = new Key(commit, ObjectId.fromRaw(id));
+        int fileCount = in.readInt();
+        if (fileCount < 0) {
+          clear();
+          return;
+        }
+        List<ChangedFile> changes = new ArrayList<>(Math.min(fileCount, 1 << 10));
+        for (int j = 0; j < fileCount; j++) {
+          changes.add(new ChangedFile(Paths.get(in.readUTF()), in.readInt()));
+        }
+        entries.put(key, changes);
+        size += estimateSize(changes);
+      }
+    } catch (EOFException | UTFDataFormatException | InvalidPathException e) {
+      // обрезанный или повреждённый файл, коммиты диффаются заново
+      clear();
+      return;
+    }
+    evict();
+  }
+
+  private void clear() {
+    entries.clear();
+    size = 0;
+  }
+
+  /**
+   * Hash a settings description, so that entries of different settings
+   * never share a key.
+   */
+  private static ObjectId hash(final String settings) {
+    return ObjectId.fromRaw(Constants.newMessageDigest()
+            .digest(settings.getBytes(StandardCharsets.UTF_8)));
+  }
+
+  private void evict() {
+    Iterator<List<ChangedFile>> eldest = entries.values().iterator();
+    while (size > maxBytes && eldest.hasNext()) {
+      size -= estimateSize(eldest.next());
+      eldest.remove();
+      dirty = true;
+    }
+  }
+
+  private static long estimateSize(final List<ChangedFile> changes) {
+    long bytes = ENTRY_OVERHEAD;
+    for (ChangedFile changedFile : changes) {
+      bytes += 6 + changedFile.getPath().toString().length();
+    }
+    return bytes;
+  }
+}
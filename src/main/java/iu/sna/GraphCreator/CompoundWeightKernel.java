@@ -0,0 +1,142 @@
+package iu.sna.GraphCreator;
+
+/**
+ * Computes compound weights of many edges in one pass over columnar arrays.
+ * Uses the {@code jdk.incubator.vector} API when the module is present
+ * at runtime and a scalar loop otherwise, both paths give bit-identical
+ * results.
+ */
+public final class CompoundWeightKernel {
+  /**
+   * Whether the incubating Vector API can be used in this JVM.
+   */
+  private static final boolean VECTORIZED = ModuleLayer.boot()
+          .findModule("jdk.incubator.vector")
+          .isPresent();
+
+  private final double commitImportanceCoefficient;
+  private final double languageCoefficient;
+  private final double languageConstant;
+
+  /**
+   * Counters of the edges, one element per edge in every column.
+   * Integer counters are stored as doubles so the kernel needs no
+   * conversions, they are exact up to 2^53.
+   *
+   * @param commonCommits      number of common commits
+   * @param commonLines        number of common changed lines
+   * @param fromCommits        number of commits of the source file
+   * @param toCommits          number of commits of the target file
+   * @param fromLines          total changed lines of the source file
+   * @param toLines            total changed lines of the target file
+   * @param locationCoef       location coefficient of the edge
+   * @param languageDependency whether an analyzer reported the edge
+   */
+  public record EdgeColumns(double[] commonCommits, double[] commonLines,
+                            double[] fromCommits, double[] toCommits,
+                            double[] fromLines, double[] toLines,
+                            double[] locationCoef,
+                            boolean[] languageDependency) {
+    /**
+     * Allocate columns for a number of edges.
+     *
+     * @param size number of edges
+     * @return zero-filled columns
+     */
+    public static EdgeColumns allocate(final int size) {
+      return new EdgeColumns(new double[size], new double[size],
+              new double[size], new double[size], new double[size],
+              new double[size], new double[size], new boolean[size]);
+    }
+
+    public int size() {
+      return commonCommits.length;
+    }
+  }
+
+  /**
+   * Create a kernel.
+   *
+   * @param commitImportance multiplier of the co-change weight
+   * @param languageCoef     multiplier of language dependency edges
+   * @param languageConst    addend of language dependency edges
+   */
+  public CompoundWeightKernel(final double commitImportance,
+                              final double languageCoef,
+                              final double languageConst) {
+    this.commitImportanceCoefficient = commitImportance;
+    this.languageCoefficient = languageCoef;
+    this.languageConstant = languageConst;
+  }
+
+  /**
+   * Check whether the vectorized path is used.
+   *
+   * @return true if the Vector API is available
+   */
+  public static boolean isVectorized() {
+    return VECTORIZED;
+  }
+
+  /**
+   * Compute the weights of all edges.
+   *
+   * @param columns edge counters
+   * @param weights receives the weight of every edge
+   */
+  public void compute(final EdgeColumns columns, final double[] weights) {
+    int done = VECTORIZED
+            ? VectorCompoundWeightKernel.compute(columns, weights,
+            commitImportanceCoefficient, languageCoefficient, languageConstant)
+            : 0;
+    computeScalar(columns, weights, done);
+  }
+
+  /**
+   * Compute weights from the given edge on, also handles the tail
+   * left by the vectorized loop.
+   *
+   * @param columns edge counters
+   * @param weights receives the weight of every edge
+   * @param from    first edge to compute
+   */
+  void computeScalar(final EdgeColumns columns, final double[] weights,
+                     final int from) {
+    for (int i = from; i < columns.size(); i++) {
+      double weight = compound(columns.commonCommits()[i],
+              columns.commonLines()[i], columns.fromCommits()[i],
+              columns.toCommits()[i], columns.fromLines()[i],
+              columns.toLines()[i], columns.locationCoef()[i]);
+      if (columns.languageDependency()[i]) {
+        weight = weight * languageCoefficient + languageConstant;
+      }
+      weights[i] = weight;
+    }
+  }
+
+  private double compound(final double commonCommits,
+                          final double commonLines, final double fromCommits,
+                          final double toCommits, final double fromLines,
+                          final double toLines, final double locationCoef) {
+    double avgCommonChangedLines = commonLines / commonCommits;
+    double totalAandBcommits = fromCommits + toCommits - commonCommits;
+    double avgLineChangesInBothFiles =
+            fromLines / fromCommits + toLines / toCommits;
+    if (commonCommits == 0 || totalAandBcommits == 0
+            || avgLineChangesInBothFiles == 0) {
+      return 0.0;
+    }
+
+    double denominator = totalAandBcommits * avgLineChangesInBothFiles;
+    if (denominator == 0) {
+      return 0.0;
+    }
+
+    double result = ((commonCommits * avgCommonChangedLines) / denominator)
+            * locationCoef * commitImportanceCoefficient;
+    if (Double.isNaN(result) || Double.isInfinite(result)) {
+      return 0.0;
+    }
+    return result;
+  }
+}
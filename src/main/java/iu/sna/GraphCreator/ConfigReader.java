@@ -34,7 +34,17 @@ public class ConfigReader {
     return Integer.parseInt(config.get(key));
   }
 
+  public int getInt(String key, int defaultValue) {
+    String value = config.get(key);
+    return value == null ? defaultValue : Integer.parseInt(value);
+  }
+
   public double getDouble(String key) {
     return Double.parseDouble(config.get(key));
   }
+
+  public boolean getBoolean(String key, boolean defaultValue) {
+    String value = config.get(key);
+    return value == null ? defaultValue : Boolean.parseBoolean(value);
+  }
 }
\ No newline at end of file
@@ -1,16 +1,30 @@
 package iu.sna.GraphCreator;
 
 import com.domain.repository_scanner.FileTechnologyStack;
+import com.infrastructure.CompactGraph;
 import com.infrastructure.Graph;
 import iu.sna.GraphCreator.LanguageAnalyzer.*;
 import lombok.Getter;
 import lombok.Setter;
+import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.api.Status;
+import org.eclipse.jgit.api.StatusCommand;
+import org.eclipse.jgit.api.errors.GitAPIException;
+import org.eclipse.jgit.diff.DiffEntry;
+import org.eclipse.jgit.diff.DiffFormatter;
+import org.eclipse.jgit.errors.MissingObjectException;
+import org.eclipse.jgit.lib.Constants;
+import org.eclipse.jgit.lib.ObjectId;
 import org.eclipse.jgit.lib.Repository;
+import org.eclipse.jgit.revwalk.RevCommit;
+import org.eclipse.jgit.revwalk.RevWalk;
+import org.eclipse.jgit.util.io.DisabledOutputStream;
 
 import java.io.File;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.time.Duration;
 import java.util.*;
 
 /**
@@ -25,12 +39,25 @@ import java.util.*;
  * 4. Calculate compound weights for edges
  * 5. Remove edges with zero weight
  *
+ * <p>When project.graphSnapshotDirectory is configured, the built graph is stored
+ * as a {@link FileGraphSnapshot} keyed by the HEAD commit and restored on the next
+ * build with the same HEAD, configuration and input files. Snapshots are
+ * neither restored nor stored while input files have uncommitted changes. With
+ * constants.INCREMENTAL_UPDATE enabled, a snapshot of an ancestor commit is
+ * updated with the files and commits changed since then instead of a full rebuild.
+ * New commits pass the same author, path and days filters as in a full build,
+ * but counters are neither limited to COMMIT_LIMIT commits nor trimmed to the
+ * days window of the new HEAD. Updated snapshots are tagged with the number of incremental steps, they are
+ * never restored as a full build, and after constants.INCREMENTAL_MAX_STEPS
+ * steps the graph is rebuilt from scratch.
+ *
  * @author Your Name
  * @version 1.0
  */
 @Getter
 public class FileGraph extends Graph<FileGraph.Vertex, FileGraph.Edge> {
   private final Map<Path, String> pathToFilename;
+  private final Map<Path, Vertex> pathToVertex;
   private final ConfigReader config;
   private final Repository repository;
   // Конфигурационные параметры
@@ -39,6 +66,33 @@ public class FileGraph extends Graph<FileGraph.Vertex, FileGraph.Edge> {
   private final double COMMIT_IMPORTANCE_COEFFICIENT;
   private final int COMMIT_LIMIT;
   private final double LOCATION_VALUE_COEFFICIENT;
+  private final boolean MENTION_IDENTIFIER_BOUNDARY;
+  private final int MENTION_SCAN_PARALLELISM;
+  private final int COMMIT_DIFF_PARALLELISM;
+  private final long DIFF_MAX_BLOB_SIZE;
+  private final int DIFF_RENAME_LIMIT;
+  private final String COMMIT_CACHE_FILE;
+  private final long COMMIT_CACHE_MAX_SIZE;
+  private CommitChangesCache commitChangesCache;
+  private final HistorySelection HISTORY_SELECTION;
+  private final MassCommitPolicy massCommitPolicy;
+  private final Duration LANGUAGE_ANALYSIS_TIMEOUT;
+  private final boolean LANGUAGE_TOOL_WORKERS;
+  private final boolean JAVA_HEADER_ONLY;
+  private final boolean NATIVE_PYTHON_ANALYSIS;
+  private final boolean NATIVE_JS_ANALYSIS;
+  private final String IMPORT_CACHE_FILE;
+  private final long IMPORT_CACHE_MAX_SIZE;
+  // счётчики совместных изменений до переноса в рёбра
+  private final CoChangeAccumulator coChanges = new CoChangeAccumulator();
+  private int nextVertexId = 0;
+  private final String SNAPSHOT_DIRECTORY;
+  private final boolean INCREMENTAL_UPDATE;
+  private final int INCREMENTAL_MAX_STEPS;
+  // отметка снимков, обновлённых инкрементально, за ней следует число шагов
+  private static final String INCREMENTAL_TAG = ";INCREMENTAL=";
+  // сколько последних снимков проверяется для инкрементального обновления
+  private static final int PREVIOUS_SNAPSHOT_CANDIDATES = 5;
 
   private LanguageAnalyzerService languageAnalyzerService;
   private Collection<FileTechnologyStack> allFiles;
@@ -46,6 +100,7 @@ public class FileGraph extends Graph<FileGraph.Vertex, FileGraph.Edge> {
   public FileGraph(Collection<FileTechnologyStack> files, String configPath, Repository repository) throws IOException {
     this.config = new ConfigReader(configPath);
     this.pathToFilename = new HashMap<>();
+    this.pathToVertex = new HashMap<>();
     this.repository = repository;
 
     // Загружаем конфигурацию
@@ -55,9 +110,43 @@ public class FileGraph extends Graph<FileGraph.Vertex, FileGraph.Edge> {
     this.COMMIT_IMPORTANCE_COEFFICIENT = config.getDouble("constants.COMMIT_IMPORTANCE_COEFFICIENT");
     this.COMMIT_LIMIT = config.getInt("constants.COMMIT_LIMIT");
     this.LOCATION_VALUE_COEFFICIENT = config.getDouble("constants.LOCATION_VALUE_COEFFICIENT");
+    this.MENTION_IDENTIFIER_BOUNDARY = config.getBoolean("constants.MENTION_IDENTIFIER_BOUNDARY", false);
+    this.MENTION_SCAN_PARALLELISM = config.getInt("constants.MENTION_SCAN_PARALLELISM", 0);
+    this.COMMIT_DIFF_PARALLELISM = config.getInt("constants.COMMIT_DIFF_PARALLELISM", 0);
+    this.DIFF_MAX_BLOB_SIZE = config.getInt("constants.DIFF_MAX_BLOB_SIZE", 8 << 20);
+    this.DIFF_RENAME_LIMIT = config.getInt("constants.DIFF_RENAME_LIMIT", 400);
+    this.COMMIT_CACHE_FILE = config.getString("project.commitCacheFile");
+    this.COMMIT_CACHE_MAX_SIZE = config.getInt("constants.COMMIT_CACHE_MAX_SIZE", 64 << 20);
+    this.HISTORY_SELECTION = new HistorySelection(COMMIT_LIMIT,
+            config.getInt("constants.HISTORY_DAYS", 0),
+            splitList(config.getString("constants.HISTORY_AUTHORS")),
+            splitList(config.getString("constants.HISTORY_PATHS")));
+    this.LANGUAGE_ANALYSIS_TIMEOUT = Duration.ofSeconds(config.getInt("constants.LANGUAGE_ANALYSIS_TIMEOUT_SECONDS", 600));
+    this.LANGUAGE_TOOL_WORKERS = config.getBoolean("constants.LANGUAGE_TOOL_WORKERS", true);
+    this.JAVA_HEADER_ONLY = config.getBoolean("constants.JAVA_HEADER_ONLY", false);
+    this.NATIVE_PYTHON_ANALYSIS = config.getBoolean("constants.NATIVE_PYTHON_ANALYSIS", true);
+    this.NATIVE_JS_ANALYSIS = config.getBoolean("constants.NATIVE_JS_ANALYSIS", true);
+    this.IMPORT_CACHE_FILE = config.getString("project.importCacheFile");
+    this.IMPORT_CACHE_MAX_SIZE = config.getInt("constants.IMPORT_CACHE_MAX_SIZE", 64 << 20);
+    String ignoreRevsFile = config.getString("project.ignoreRevsFile");
+    this.massCommitPolicy = new MassCommitPolicy(
+            ignoreRevsFile == null || ignoreRevsFile.isEmpty() || repository.isBare()
+                    ? Set.of()
+                    : MassCommitPolicy.readIgnoreRevs(repository.getWorkTree().toPath().resolve(ignoreRevsFile)),
+            config.getInt("constants.MASS_COMMIT_FILE_THRESHOLD", 500),
+            config.getInt("constants.MASS_COMMIT_MAX_PAIRS", 10000));
+    this.SNAPSHOT_DIRECTORY = config.getString("project.graphSnapshotDirectory");
+    this.INCREMENTAL_UPDATE = config.getBoolean("constants.INCREMENTAL_UPDATE", false);
+    this.INCREMENTAL_MAX_STEPS = config.getInt("constants.INCREMENTAL_MAX_STEPS", 10);
 
     this.languageAnalyzerService = new LanguageAnalyzerService(
-            List.of(new PydepsAnalyzer(), new MadgeAnalyzerJavaScript(), new MadgeAnalyzerTypeScript(), new JavaParserAnalyzer()));
+            List.of(NATIVE_PYTHON_ANALYSIS ? new PythonImportAnalyzer() : new PydepsAnalyzer(LANGUAGE_TOOL_WORKERS),
+                    NATIVE_JS_ANALYSIS ? new NodeImportAnalyzer("javascript") : new MadgeAnalyzerJavaScript(LANGUAGE_TOOL_WORKERS),
+                    NATIVE_JS_ANALYSIS ? new NodeImportAnalyzer("typescript") : new MadgeAnalyzerTypeScript(LANGUAGE_TOOL_WORKERS),
+                    new JavaParserAnalyzer(0, JAVA_HEADER_ONLY)),
+            IMPORT_CACHE_FILE == null || IMPORT_CACHE_FILE.isEmpty()
+                    ? null
+                    : new ImportCache(Path.of(IMPORT_CACHE_FILE), IMPORT_CACHE_MAX_SIZE));
 
     Collection<File> extractedFiles = new ArrayList<>();
     files.forEach(file -> extractedFiles.add(file.file()));
@@ -71,7 +160,52 @@ public class FileGraph extends Graph<FileGraph.Vertex, FileGraph.Edge> {
     for (File file : files) {
       Path path = file.toPath();
       pathToFilename.put(path, file.getName());
-      addVertex(file.getName(), path);
+    }
+
+    ObjectId head = repository.resolve(Constants.HEAD);
+    String settings = describeSettings();
+    Path snapshotFile = getSnapshotFile(head);
+    if (snapshotFile != null && hasUncommittedInputs()) {
+      // снимок описывает HEAD, а граф строится по рабочей копии
+      System.out.println("Input files have uncommitted changes, graph snapshots are not used");
+      snapshotFile = null;
+    }
+    if (snapshotFile != null) {
+      // граф для того же HEAD, настроек и файлов уже построен
+      FileGraphSnapshot snapshot = FileGraphSnapshot.read(snapshotFile);
+      if (snapshot != null && snapshot.matches(head.name(), settings, pathToFilename.keySet())) {
+        restoreSnapshot(snapshot);
+        return;
+      }
+    }
+
+    FileGraphSnapshot previous = snapshotFile != null && INCREMENTAL_UPDATE
+            ? findPreviousSnapshot(head, settings)
+            : null;
+    int steps = 0;
+    if (previous != null) {
+      steps = incrementalSteps(previous, head, settings);
+      restoreSnapshot(previous);
+      updateIncrementally(previous, head);
+    } else {
+      buildGraph(files);
+    }
+
+    if (snapshotFile != null) {
+      toSnapshot(head.name(), steps == 0 ? settings : settings + INCREMENTAL_TAG + steps)
+              .write(snapshotFile);
+    }
+  }
+
+  /**
+   * Build the graph from scratch.
+   *
+   * @param files Input files
+   * @throws IOException if file or commit operations fail
+   */
+  private void buildGraph(Collection<File> files) throws IOException {
+    for (File file : files) {
+      addVertex(file.getName(), file.toPath());
     }
     // смотрим по упоминании имени
     buildFileRelationships();
@@ -79,12 +213,349 @@ public class FileGraph extends Graph<FileGraph.Vertex, FileGraph.Edge> {
     // смотрим по упоминании в коммитах
     parseCommits();
 
-    // считаем веса
-    updateCompoundPower();
     // применяем специфический инструмент к группе файлов на одном языке
     applyLanguageSpecificAnalisis();
 
+    // считаем веса
+    updateCompoundPower();
+  }
+
+  /**
+   * Get the snapshot file for a HEAD commit.
+   *
+   * @param head HEAD commit id
+   * @return Snapshot file or null if snapshots are disabled
+   * or the repository has no commits
+   */
+  private Path getSnapshotFile(ObjectId head) {
+    if (SNAPSHOT_DIRECTORY == null || SNAPSHOT_DIRECTORY.isEmpty() || head == null) {
+      return null;
+    }
+    return Path.of(SNAPSHOT_DIRECTORY).resolve(head.name() + ".graph");
+  }
+
+  /**
+   * Check whether any input file differs from HEAD in the working tree.
+   * Untracked inputs and inputs outside the working tree count as changed,
+   * since HEAD does not describe their content.
+   *
+   * @return true if a graph built now would not be the graph of HEAD
+   * @throws IOException if the status cannot be computed
+   */
+  private boolean hasUncommittedInputs() throws IOException {
+    if (repository.isBare() || pathToFilename.isEmpty()) {
+      return false;
+    }
+    Path workTree = repository.getWorkTree().toPath().toAbsolutePath().normalize();
+    Set<String> inputs = new HashSet<>();
+    for (Path path : pathToFilename.keySet()) {
+      Path absolute = path.toAbsolutePath().normalize();
+      if (!absolute.startsWith(workTree)) {
+        return true;
+      }
+      inputs.add(workTree.relativize(absolute).toString().replace(File.separatorChar, '/'));
+    }
+
+    StatusCommand command = Git.wrap(repository).status();
+    inputs.forEach(command::addPath);
+    Status status;
+    try {
+      status = command.call();
+    } catch (GitAPIException e) {
+      throw new IOException("Cannot compute the working tree status", e);
+    }
+    for (String path : status.getUncommittedChanges()) {
+      if (inputs.contains(path)) {
+        return true;
+      }
+    }
+    for (String path : status.getUntracked()) {
+      if (inputs.contains(path)) {
+        return true;
+      }
+    }
+    // файлы внутри неотслеживаемых каталогов перечисляются только каталогом
+    for (String folder : status.getUntrackedFolders()) {
+      for (String input : inputs) {
+        if (input.startsWith(folder + "/")) {
+          return true;
+        }
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Describe the configuration constants the graph depends on.
+   *
+   * @return Settings description stored in snapshots
+   */
+  private String describeSettings() {
+    return "LANGUAGE_SPECIFIC_ANALYSIS_CONSTANT=" + LANGUAGE_SPECIFIC_ANALYSIS_CONSTANT
+            + ";LANGUAGE_SPECIFIC_ANALYSIS_COEF=" + LANGUAGE_SPECIFIC_ANALYSIS_COEF
+            + ";COMMIT_IMPORTANCE_COEFFICIENT=" + COMMIT_IMPORTANCE_COEFFICIENT
+            + ";" + HISTORY_SELECTION.describe()
+            + ";" + massCommitPolicy.describe()
+            + ";LOCATION_VALUE_COEFFICIENT=" + LOCATION_VALUE_COEFFICIENT
+            + ";MENTION_IDENTIFIER_BOUNDARY=" + MENTION_IDENTIFIER_BOUNDARY
+            + ";JAVA_HEADER_ONLY=" + JAVA_HEADER_ONLY
+            + ";NATIVE_PYTHON_ANALYSIS=" + NATIVE_PYTHON_ANALYSIS
+            + ";NATIVE_JS_ANALYSIS=" + NATIVE_JS_ANALYSIS
+            + ";DIFF_MAX_BLOB_SIZE=" + DIFF_MAX_BLOB_SIZE
+            + ";DIFF_RENAME_LIMIT=" + DIFF_RENAME_LIMIT;
+  }
+
+  /**
+   * Count the incremental steps of a graph updated from a snapshot.
+   * Updating to the same HEAD folds no commits and adds no step.
+   *
+   * @param snapshot Snapshot the graph is updated from
+   * @param head     Current HEAD commit id
+   * @param settings Settings description of a full build
+   * @return Number of steps since the last full build,
+   * or -1 if the snapshot was built with other settings
+   */
+  private int incrementalSteps(FileGraphSnapshot snapshot, ObjectId head, String settings) {
+    int steps;
+    if (snapshot.settings().equals(settings)) {
+      steps = 0;
+    } else if (snapshot.settings().startsWith(settings + INCREMENTAL_TAG)) {
+      try {
+        steps = Integer.parseInt(snapshot.settings().substring(settings.length() + INCREMENTAL_TAG.length()));
+      } catch (NumberFormatException e) {
+        return -1;
+      }
+    } else {
+      return -1;
+    }
+    return snapshot.headCommit().equals(head.name()) ? steps : steps + 1;
+  }
+
+  /**
+   * Find the most recent snapshot built with the same settings
+   * for an ancestor of the current HEAD, whose update would not exceed
+   * the limit of incremental steps.
+   *
+   * @param head     Current HEAD commit id
+   * @param settings Settings description
+   * @return Previous snapshot or null if there is none
+   * @throws IOException if the snapshot directory cannot be read
+   */
+  private FileGraphSnapshot findPreviousSnapshot(ObjectId head, String settings) throws IOException {
+    Path directory = Path.of(SNAPSHOT_DIRECTORY);
+    if (!Files.isDirectory(directory)) {
+      return null;
+    }
+    List<Path> candidates;
+    try (var listing = Files.list(directory)) {
+      candidates = listing
+              .filter(path -> path.getFileName().toString().endsWith(".graph"))
+              .sorted(Comparator.comparingLong((Path path) -> path.toFile().lastModified()).reversed())
+              .limit(PREVIOUS_SNAPSHOT_CANDIDATES)
+              .toList();
+    }
+
+    try (RevWalk revWalk = new RevWalk(repository)) {
+      RevCommit headCommit = revWalk.parseCommit(head);
+      for (Path candidate : candidates) {
+        FileGraphSnapshot snapshot = FileGraphSnapshot.read(candidate);
+        if (snapshot == null) {
+          continue;
+        }
+        int steps = incrementalSteps(snapshot, head, settings);
+        if (steps < 0 || steps > INCREMENTAL_MAX_STEPS) {
+          continue;
+        }
+        try {
+          RevCommit snapshotCommit = revWalk.parseCommit(ObjectId.fromString(snapshot.headCommit()));
+          if (revWalk.isMergedInto(snapshotCommit, headCommit)) {
+            return snapshot;
+          }
+        } catch (MissingObjectException e) {
+          // the commit is gone after a rebase or gc
+        }
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Capture vertices, edge counters and weights of the built graph.
+   *
+   * @param head     HEAD commit id the graph was built from
+   * @param settings Settings description
+   * @return Snapshot of the graph
+   */
+  private FileGraphSnapshot toSnapshot(String head, String settings) {
+    List<FileGraphSnapshot.VertexData> vertices = new ArrayList<>();
+    Map<Vertex, Integer> vertexIndex = new HashMap<>();
+    for (Vertex vertex : getNodes()) {
+      vertexIndex.put(vertex, vertices.size());
+      vertices.add(new FileGraphSnapshot.VertexData(
+              vertex.getFilepath().toString(), pathToFilename.containsKey(vertex.getFilepath()),
+              vertex.getCountCommits(), vertex.getTotalChangedLines()));
+    }
+
+    List<FileGraphSnapshot.EdgeData> edges = new ArrayList<>();
+    forEachEdge((from, to, edge) -> edges.add(new FileGraphSnapshot.EdgeData(
+            vertexIndex.get(from), vertexIndex.get(to), edge.isMentioned(), edge.isLanguageDependency(),
+            edge.getCompoundWeight(), edge.getCountCommonCommits(), edge.getCountCommonChangedLines())));
+    return new FileGraphSnapshot(head, settings, vertices, edges);
+  }
 
+  /**
+   * Restore vertices and edges from a snapshot instead of building them.
+   *
+   * @param snapshot Snapshot matching the current HEAD and settings
+   */
+  private void restoreSnapshot(FileGraphSnapshot snapshot) {
+    List<Vertex> vertices = new ArrayList<>(snapshot.vertices().size());
+    for (FileGraphSnapshot.VertexData data : snapshot.vertices()) {
+      Path path = Path.of(data.path());
+      Vertex vertex = addVertex(path.getFileName().toString(), path);
+      vertex.setCountCommits(data.countCommits());
+      vertex.setTotalChangedLines(data.totalChangedLines());
+      vertices.add(vertex);
+    }
+    for (FileGraphSnapshot.EdgeData data : snapshot.edges()) {
+      Edge edge = addEdge(vertices.get(data.from()), vertices.get(data.to()));
+      edge.setMentioned(data.mentioned());
+      edge.setLanguageDependency(data.languageDependency());
+      edge.setCompoundWeight(data.compoundWeight());
+      edge.setCountCommonCommits(data.countCommonCommits());
+      edge.setCountCommonChangedLines(data.countCommonChangedLines());
+    }
+  }
+
+  /**
+   * Bring a graph restored from an older snapshot up to date with HEAD.
+   * Only added and modified files are rescanned for mentions and
+   * reanalyzed by language analyzers, their stale edges are retracted.
+   * Commits made since the snapshot that match HISTORY_SELECTION are
+   * folded into the existing co-change counters. Unlike a full build the
+   * counters are not limited to the last COMMIT_LIMIT commits, and commits
+   * that left the days window of the new HEAD are not subtracted, so the
+   * result is stored as an incremental snapshot and rebuilt after
+   * INCREMENTAL_MAX_STEPS steps.
+   * Compound weights are recomputed only for edges touching affected files.
+   *
+   * @param previous Snapshot the graph was restored from
+   * @param head     Current HEAD commit id
+   * @throws IOException if file or commit operations fail
+   */
+  private void updateIncrementally(FileGraphSnapshot previous, ObjectId head) throws IOException {
+    Set<Path> modified = new HashSet<>();
+    Set<Path> deleted = new HashSet<>();
+    List<ObjectId> newCommitIds = new ArrayList<>();
+    try (RevWalk revWalk = new RevWalk(repository);
+         DiffFormatter diffFormatter = new DiffFormatter(DisabledOutputStream.INSTANCE)) {
+      RevCommit oldCommit = revWalk.parseCommit(ObjectId.fromString(previous.headCommit()));
+      RevCommit newCommit = revWalk.parseCommit(head);
+
+      diffFormatter.setRepository(repository);
+      for (DiffEntry diff : diffFormatter.scan(oldCommit.getTree(), newCommit.getTree())) {
+        if (diff.getChangeType() == DiffEntry.ChangeType.DELETE) {
+          deleted.add(Path.of(diff.getOldPath()));
+        } else {
+          modified.add(Path.of(diff.getNewPath()));
+        }
+      }
+
+      // те же фильтры автора, путей и времени, что и при полной сборке
+      HISTORY_SELECTION.configure(revWalk, newCommit);
+      revWalk.markUninteresting(oldCommit);
+      for (RevCommit commit : revWalk) {
+        newCommitIds.add(commit.getId());
+      }
+    }
+    List<List<ChangedFile>> newCommits = createCommitParser().getChangedLinesInCommits(newCommitIds);
+
+    // удаляем файлы, которых больше нет
+    Set<String> previousInputs = previous.inputPaths();
+    Set<Vertex> removed = new HashSet<>();
+    for (Vertex vertex : getNodes()) {
+      Path path = vertex.getFilepath();
+      if (deleted.contains(path)
+              || (previousInputs.contains(path.toString()) && !pathToFilename.containsKey(path))) {
+        removed.add(vertex);
+      }
+    }
+    removeVertices(removed);
+
+    // добавленные и изменённые файлы
+    Set<Path> changed = new HashSet<>();
+    Set<Path> added = new HashSet<>();
+    for (Path path : pathToFilename.keySet()) {
+      if (findVertex(path) == null) {
+        added.add(path);
+        addVertex(pathToFilename.get(path), path);
+      }
+      if (modified.contains(path) || !previousInputs.contains(path.toString())) {
+        changed.add(path);
+      }
+    }
+
+    // отзываем устаревшие связи изменённых файлов
+    Set<Path> analyzedSources = new HashSet<>(changed);
+    changed.forEach(path -> analyzedSources.add(path.toAbsolutePath()));
+    forEachEdge((from, to, edge) -> {
+      if (changed.contains(to.getFilepath())) {
+        edge.setMentioned(false);
+      }
+      if (analyzedSources.contains(from.getFilepath())) {
+        edge.setLanguageDependency(false);
+      }
+    });
+
+    // изменённые файлы упоминают любые файлы, новые файлы упоминаются неизменёнными
+    Set<Path> unchanged = new HashSet<>(pathToFilename.keySet());
+    unchanged.removeAll(changed);
+    scanMentions(changed, pathToFilename.keySet());
+    scanMentions(unchanged, added);
+
+    List<FileTechnologyStack> changedFiles = new ArrayList<>();
+    for (FileTechnologyStack fileStack : allFiles) {
+      if (changed.contains(fileStack.file().toPath())) {
+        changedFiles.add(fileStack);
+      }
+    }
+    applyLanguageSpecificAnalisis(changedFiles);
+
+    // связи без источника больше не существуют
+    List<Edge> stale = new ArrayList<>();
+    forEachEdge((from, to, edge) -> {
+      if (!edge.isMentioned() && !edge.isLanguageDependency()) {
+        stale.add(edge);
+      }
+    });
+    stale.forEach(edge -> removeEdge(edge.getFrom(), edge.getTo()));
+
+    Set<Vertex> affected = new HashSet<>();
+    changed.forEach(path -> affected.add(findVertex(path)));
+    for (List<ChangedFile> commit : newCommits) {
+      for (ChangedFile file : commit) {
+        Vertex vertex = findVertex(file.getPath());
+        if (vertex != null) {
+          affected.add(vertex);
+        }
+      }
+    }
+    for (int i = 0; i < newCommits.size(); i++) {
+      processCommit(newCommitIds.get(i), newCommits.get(i));
+    }
+    applyCoChanges();
+    System.out.println(massCommitPolicy.report());
+    updateCompoundPower(affected);
+  }
+
+  /**
+   * Remove vertices together with their edges.
+   *
+   * @param removed Vertices to remove
+   */
+  private void removeVertices(Set<Vertex> removed) {
+    removed.forEach(vertex -> pathToVertex.remove(vertex.getFilepath()));
+    removeNodes(removed);
   }
 
   /**
@@ -110,38 +581,51 @@ public class FileGraph extends Graph<FileGraph.Vertex, FileGraph.Edge> {
    * @throws IOException if file operations fail
    */
   private void buildFileRelationships() throws IOException {
-    List<Path> filepaths = new ArrayList<>(pathToFilename.keySet());
-    Map<Path, String> fileContents = new HashMap<>();
+    scanMentions(pathToFilename.keySet(), pathToFilename.keySet());
+  }
 
-    // Extract file content
-    for (Path filepath : filepaths) {
-      try {
-        fileContents.put(filepath, Files.readString(filepath));
-      } catch (Exception e) {
-        // Skip binary or unreadable files
-      }
+  /**
+   * Create an edge to every scanned file from each candidate it mentions.
+   *
+   * @param scanned    Files whose content is scanned
+   * @param candidates Files whose names are looked for
+   * @throws IOException if file operations fail
+   */
+  private void scanMentions(Collection<Path> scanned, Collection<Path> candidates) throws IOException {
+    if (scanned.isEmpty() || candidates.isEmpty()) {
+      return;
+    }
+
+    // files sharing the same stem are matched by a single pattern
+    Map<String, Integer> stemIndex = new HashMap<>();
+    List<String> stems = new ArrayList<>();
+    List<List<Path>> stemOwners = new ArrayList<>();
+    for (Path filepath : candidates) {
+      String stem = getFileNameWithoutExtension(pathToFilename.get(filepath));
+      int index = stemIndex.computeIfAbsent(stem, k -> {
+        stems.add(k);
+        stemOwners.add(new ArrayList<>());
+        return stems.size() - 1;
+      });
+      stemOwners.get(index).add(filepath);
     }
-    // scanning for file mentioning
-    for (Path filepath1 : filepaths) {
-      String file1 = pathToFilename.get(filepath1);
-      for (Path filepath2 : filepaths) {
+    MentionMatcher matcher = new MentionMatcher(stems, MENTION_IDENTIFIER_BOUNDARY);
+
+    // scanning for file mentioning, every file content is scanned once
+    MentionScanner scanner = new MentionScanner(matcher, MENTION_SCAN_PARALLELISM);
+    for (MentionScanner.Mention mention : scanner.scan(scanned)) {
+      Path filepath2 = mention.mentioningFile();
+      for (Path filepath1 : stemOwners.get(mention.pattern())) {
         if (filepath1.equals(filepath2)) {
           continue;
         }
-        try {
-          String file2 = pathToFilename.get(filepath2);
-          String fileContent = fileContents.get(filepath2);
-          String nameWoExtension = getFileNameWithoutExtension(file1);
-
-          if (fileContent.contains(nameWoExtension)) {
-//            System.out.println(filepath2 + " содержит " + filepath1);
-            Vertex from = addVertex(file1, filepath1);
-            Vertex to = addVertex(file2, filepath2);
-            addEdge(from, to);
-          }
-        } catch (Exception e) {
-          // Skip unreadable files
+        Vertex from = addVertex(pathToFilename.get(filepath1), filepath1);
+        Vertex to = addVertex(pathToFilename.get(filepath2), filepath2);
+        Edge edge = findEdge(from, to);
+        if (edge == null) {
+          edge = addEdge(from, to);
         }
+        edge.setMentioned(true);
       }
     }
   }
@@ -156,64 +640,70 @@ public class FileGraph extends Graph<FileGraph.Vertex, FileGraph.Edge> {
     return fileName.contains(".") ? fileName.substring(0, fileName.lastIndexOf(".")) : fileName;
   }
 
-  /**
-   * Update edge parameters based on file changes.
-   *
-   * @param from Source vertex
-   * @param to   Target vertex
-   */
-  private void updateEdgeParameters(Vertex from, Vertex to) {
-    Edge edge = findEdge(from, to);
-    if (edge == null) {
-      edge = new Edge(from, to);
-    }
-    edge.incrementCountCommonCommits();
-    edge.incrementCountCommonChangedLines(from.getTotalChangedLines() + to.getTotalChangedLines());
-  }
-
   /**
    * Parse commit history and update graph relationships.
+   * Commits are consumed one by one as they are diffed.
    *
    * @throws IOException if commit operations fail
    */
   public void parseCommits() throws IOException {
-    List<List<ChangedFile>> commitHistory = getCommitHistory();
-    processCommitHistory(commitHistory);
+    createCommitParser().streamCommits(HISTORY_SELECTION,
+            commit -> processCommit(commit.commitId(), commit.changedFiles()));
+    applyCoChanges();
+    System.out.println(massCommitPolicy.report());
   }
 
   /**
-   * Process commit history to update graph relationships.
+   * Update vertex counters and accumulate co-changes of one commit.
+   * Every changed file is counted once per commit, and the common
+   * changed lines of a pair are the lines the commit changed in both
+   * files. The counters do not depend on the order of the commits,
+   * so new commits folded into a snapshot by {@link #updateIncrementally}
+   * count as in a full build. Pairs of files are limited and
+   * weighted by the mass commit policy.
+   * Edge counters are updated by {@link #applyCoChanges()}.
    *
-   * @param commitHistory List of commits with changed files
+   * @param commitId     Commit id
+   * @param changedFiles Files changed in the commit
    */
-  private void processCommitHistory(List<List<ChangedFile>> commitHistory) {
-    commitHistory.forEach(changedFiles -> {
-      // changed files in commit
-      List<ChangedFile> changedFileList = new ArrayList<>(changedFiles);
+  private void processCommit(ObjectId commitId, List<ChangedFile> changedFiles) {
+    if (massCommitPolicy.ignore(commitId)) {
+      return;
+    }
 
-      for (int i = 0; i < changedFileList.size(); i++) {
-        ChangedFile file1 = changedFileList.get(i);
-        Vertex from = findVertex(file1.getPath());
-        if (from == null) {
-          continue;
-        }
+    // только файлы графа
+    int[] ids = new int[changedFiles.size()];
+    int[] changedLines = new int[changedFiles.size()];
+    int count = 0;
+    for (ChangedFile file : changedFiles) {
+      Vertex vertex = findVertex(file.getPath());
+      if (vertex != null) {
+        vertex.incrementCountCommits();
+        vertex.incrementTotalChangedLines(file.getChangedLines());
+        ids[count] = vertex.getId();
+        changedLines[count] = file.getChangedLines();
+        count++;
+      }
+    }
 
-        from.incrementCountCommits();
-        from.incrementTotalChangedLines(file1.getChangedLines());
-        for (int j = i + 1; j < changedFileList.size(); j++) {
-          ChangedFile file2 = changedFileList.get(j);
-          Vertex to = findVertex(file2.path);
-
-          // если эти файлы были в инпуте - обновляем
-          if (to != null) {
-            to.incrementCountCommits();
-            to.incrementTotalChangedLines(file2.getChangedLines());
-            updateEdgeParameters(from, to);
-            updateEdgeParameters(to, from);
-          }
-        }
+    massCommitPolicy.forEachPair(commitId, count,
+            (i, j, weight) -> coChanges.add(ids[i], ids[j], changedLines[i] + changedLines[j], weight));
+  }
+
+  /**
+   * Add the accumulated co-change counters to the edges of the graph
+   * and reset the accumulator. Co-changes only strengthen existing edges.
+   */
+  private void applyCoChanges() {
+    forEachEdge((from, to, edge) -> {
+      double commits = coChanges.getCommonCommits(from.getId(), to.getId());
+      if (commits > 0) {
+        edge.setCountCommonCommits(edge.getCountCommonCommits() + commits);
+        edge.setCountCommonChangedLines(edge.getCountCommonChangedLines()
+                + coChanges.getCommonLines(from.getId(), to.getId()));
       }
     });
+    coChanges.clear();
   }
 
   /**
@@ -237,80 +727,54 @@ public class FileGraph extends Graph<FileGraph.Vertex, FileGraph.Edge> {
    * Update compound weights for all edges.
    */
   private void updateCompoundPower() {
-    for (Graph.EdgeInfo<Vertex, Edge> edgeInfo : getEdges()) {
-      try {
-        double weight = calculateCompoundWeight(edgeInfo.edgeData());
-        edgeInfo.edgeData().setCompoundWeight(edgeInfo.edgeData().getCompoundWeight() + weight);
-      } catch (ArithmeticException e) {
-        System.out.println(
-                "ArithmeticException in updateCompoundPower for edge " + edgeInfo.source().getFilename() + " -> " + edgeInfo.destination().getFilename() + ": " + e.getMessage());
-        edgeInfo.edgeData().setCompoundWeight(0);
-      }
-    }
-  }
-
-  /**
-   * Calculate compound weight for an edge.
-   *
-   * @param edge Edge to calculate weight for
-   * @return Calculated compound weight
-   */
-  private double calculateCompoundWeight(Edge edge) {
-    Vertex file1 = edge.getFrom();
-    Vertex file2 = edge.getTo();
-
-    int commonFileChangesCounter = edge.getCountCommonCommits();
-    double avgCommonChangedLines = (double) edge.getCountCommonChangedLines() / commonFileChangesCounter;
-    int totalAandBcommits = file1.getCountCommits() + file2.getCountCommits() - commonFileChangesCounter;
-    double avgLineChangesInBothFiles = calculateAverageLineChanges(file1, file2);
-
-    return calculateCompound(
-            commonFileChangesCounter, avgCommonChangedLines, totalAandBcommits, avgLineChangesInBothFiles,
-            edge.getFILE_LOCATION_COEF()
-    );
+    List<Edge> edges = new ArrayList<>();
+    forEachEdge((source, destination, edge) -> edges.add(edge));
+    updateCompoundPower(edges);
   }
 
   /**
-   * Calculate average line changes for two files.
+   * Update compound weights for edges touching the affected vertices.
    *
-   * @param file1 First file vertex
-   * @param file2 Second file vertex
-   * @return Average number of line changes
+   * @param affected Vertices whose counters or edges have changed
    */
-  private double calculateAverageLineChanges(Vertex file1, Vertex file2) {
-    return ((double) file1.getTotalChangedLines() / file1.getCountCommits()) + ((double) file2.getTotalChangedLines() / file2.getCountCommits());
+  private void updateCompoundPower(Set<Vertex> affected) {
+    List<Edge> edges = new ArrayList<>();
+    forEachEdge((source, destination, edge) -> {
+      if (affected.contains(source) || affected.contains(destination)) {
+        edges.add(edge);
+      }
+    });
+    updateCompoundPower(edges);
   }
 
   /**
-   * Calculate compound value based on various factors.
+   * Recompute compound weights of edges from their counters in one pass
+   * of the {@link CompoundWeightKernel}.
+   * Edges reported by a language analyzer are amplified.
    *
-   * @param commonFileChangesCounter  Number of common file changes
-   * @param avgCommonChangedLines     Average number of changed lines
-   * @param totalAandBcommits         Total number of commits
-   * @param avgLineChangesInBothFiles Average line changes in both files
-   * @param fileLocationCoef          Location coefficient
-   * @return Calculated compound value
+   * @param edges Edges to update
    */
-  private double calculateCompound(
-          int commonFileChangesCounter, double avgCommonChangedLines, int totalAandBcommits,
-          double avgLineChangesInBothFiles, double fileLocationCoef) {
-
-    if (commonFileChangesCounter == 0 || totalAandBcommits == 0 || avgLineChangesInBothFiles == 0) {
-      return 0.0;
+  private void updateCompoundPower(List<Edge> edges) {
+    CompoundWeightKernel.EdgeColumns columns = CompoundWeightKernel.EdgeColumns.allocate(edges.size());
+    for (int i = 0; i < edges.size(); i++) {
+      Edge edge = edges.get(i);
+      columns.commonCommits()[i] = edge.getCountCommonCommits();
+      columns.commonLines()[i] = edge.getCountCommonChangedLines();
+      columns.fromCommits()[i] = edge.getFrom().getCountCommits();
+      columns.toCommits()[i] = edge.getTo().getCountCommits();
+      columns.fromLines()[i] = edge.getFrom().getTotalChangedLines();
+      columns.toLines()[i] = edge.getTo().getTotalChangedLines();
+      columns.locationCoef()[i] = edge.getFILE_LOCATION_COEF();
+      columns.languageDependency()[i] = edge.isLanguageDependency();
     }
 
-    double denominator = (double) totalAandBcommits * avgLineChangesInBothFiles;
-    if (denominator == 0) {
-      return 0.0;
+    double[] weights = new double[edges.size()];
+    new CompoundWeightKernel(COMMIT_IMPORTANCE_COEFFICIENT,
+            LANGUAGE_SPECIFIC_ANALYSIS_COEF, LANGUAGE_SPECIFIC_ANALYSIS_CONSTANT)
+            .compute(columns, weights);
+    for (int i = 0; i < edges.size(); i++) {
+      edges.get(i).setCompoundWeight(weights[i]);
     }
-
-    double result = (((double) commonFileChangesCounter * avgCommonChangedLines) / denominator) * fileLocationCoef * COMMIT_IMPORTANCE_COEFFICIENT;
-
-    if (Double.isNaN(result) || Double.isInfinite(result)) {
-      return 0.0;
-    }
-
-    return result;
   }
 
   /**
@@ -348,14 +812,15 @@ public class FileGraph extends Graph<FileGraph.Vertex, FileGraph.Edge> {
 //    }
 //    return res;
 //  }
-  private Map<String, List<String>> groupFilesByLanguage() {
+  private Map<String, List<String>> groupFilesByLanguage(Collection<FileTechnologyStack> files) {
     Map<String, List<String>> groupedFiles = new HashMap<>();
 
-    for (FileTechnologyStack fileStack : allFiles) {
+    for (FileTechnologyStack fileStack : files) {
       String language = fileStack.language().toLowerCase();
       File file = fileStack.file();
 
-      groupedFiles.computeIfAbsent(language, k -> new ArrayList<>()).add(file.getAbsolutePath());
+      // пути в том же виде, что и у вершин, иначе рёбра анализаторов не найдут вершин
+      groupedFiles.computeIfAbsent(language, k -> new ArrayList<>()).add(file.toPath().toString());
     }
 
     return groupedFiles;
@@ -365,37 +830,61 @@ public class FileGraph extends Graph<FileGraph.Vertex, FileGraph.Edge> {
    * Supported languages:
    * - python
    * -typescript/javascript
+   * Languages are analyzed concurrently, each run is limited
+   * by LANGUAGE_ANALYSIS_TIMEOUT_SECONDS.
    *
    * @throws IOException
    */
   private void applyLanguageSpecificAnalisis() throws IOException {
 
-    Map<String, List<String>> groupedFiles = groupFilesByLanguage();
-    for (String language : groupedFiles.keySet()) {
-      List<String> filenames = groupedFiles.get(language);
+    Map<String, List<String>> groupedFiles = groupFilesByLanguage(allFiles);
+    Map<String, List<Map.Entry<Path, Path>>> toolOutputs = languageAnalyzerService.analyzeConcurrently(
+            groupedFiles, LANGUAGE_ANALYSIS_TIMEOUT);
+    toolOutputs.values().forEach(this::addLanguageDependencies);
+  }
 
-      List<Map.Entry<Path, Path>> toolOutput = languageAnalyzerService.AnalyzeDependencies(language, filenames);
-      for (Map.Entry<Path, Path> entry : toolOutput) {
-        Path pFrom = entry.getKey();
-        Path pTo = entry.getValue();
-        Vertex from = findVertex(pFrom);
-        Vertex to = findVertex(pTo);
-        Edge edge = findEdge(from, to);
-        if (from == null) {
-          from = addVertex(pFrom.getFileName().toString(), pFrom);
-        }
+  /**
+   * Analyze dependencies of the given files only,
+   * all input files remain candidates for import resolution.
+   *
+   * @param sources Files to analyze
+   * @throws IOException
+   */
+  private void applyLanguageSpecificAnalisis(Collection<FileTechnologyStack> sources) throws IOException {
+    Map<String, List<String>> groupedSources = groupFilesByLanguage(sources);
+    Map<String, List<String>> groupedFiles = groupFilesByLanguage(allFiles);
+    // анализаторы работают параллельно, граф меняется только после завершения всех
+    Map<String, List<Map.Entry<Path, Path>>> toolOutputs = languageAnalyzerService.analyzeConcurrently(
+            groupedSources, groupedFiles, LANGUAGE_ANALYSIS_TIMEOUT);
+    toolOutputs.values().forEach(this::addLanguageDependencies);
+  }
 
+  /**
+   * Mark edges reported by a language analyzer, creating them if needed.
+   *
+   * @param toolOutput Dependencies reported by the analyzer
+   */
+  private void addLanguageDependencies(List<Map.Entry<Path, Path>> toolOutput) {
+    for (Map.Entry<Path, Path> entry : toolOutput) {
+      Path pFrom = entry.getKey();
+      Path pTo = entry.getValue();
+      Vertex from = findVertex(pFrom);
+      Vertex to = findVertex(pTo);
+      Edge edge = findEdge(from, to);
+      if (from == null) {
+        from = addVertex(pFrom.getFileName().toString(), pFrom);
+      }
 
-        if (to == null) {
-          to = addVertex(pTo.getFileName().toString(), pTo);
 
-        }
-        if (edge == null) {
-          edge = addEdge(from, to);
-        }
-        edge.setCompoundWeight(edge.getCompoundWeight() * LANGUAGE_SPECIFIC_ANALYSIS_COEF + LANGUAGE_SPECIFIC_ANALYSIS_CONSTANT);
-//        System.out.println(from.getFilepath() + " -> " + to.getFilepath());
+      if (to == null) {
+        to = addVertex(pTo.getFileName().toString(), pTo);
+
+      }
+      if (edge == null) {
+        edge = addEdge(from, to);
       }
+      edge.setLanguageDependency(true);
+//        System.out.println(from.getFilepath() + " -> " + to.getFilepath());
     }
   }
 
@@ -403,13 +892,43 @@ public class FileGraph extends Graph<FileGraph.Vertex, FileGraph.Edge> {
    * Remove edges with zero weight from the graph.
    */
   /**
-   * Get commit history from repository.
+   * Split a comma separated configuration value.
    *
-   * @return List of commits with changed files
+   * @param value Configuration value, may be null
+   * @return Non-empty trimmed items
    */
-  private List<List<ChangedFile>> getCommitHistory() {
+  private static List<String> splitList(String value) {
+    List<String> items = new ArrayList<>();
+    if (value != null) {
+      for (String item : value.split(",")) {
+        if (!item.isBlank()) {
+          items.add(item.trim());
+        }
+      }
+    }
+    return items;
+  }
+
+  /**
+   * Create a commit parser diffing commits on COMMIT_DIFF_PARALLELISM workers
+   * and counting lines only in blobs up to DIFF_MAX_BLOB_SIZE bytes.
+   * Commits already diffed are read from the commit cache if it is configured.
+   *
+   * @return Configured parser
+   * @throws IOException if the commit cache cannot be read
+   */
+  private GitCommitParser createCommitParser() throws IOException {
     GitCommitParser parser = new GitCommitParser(repository);
-    return new ArrayList<>(parser.getChangeFilesInFirstNcommits(COMMIT_LIMIT));
+    parser.setParallelism(COMMIT_DIFF_PARALLELISM);
+    parser.setMaxBlobSize(DIFF_MAX_BLOB_SIZE);
+    parser.setRenameLimit(DIFF_RENAME_LIMIT);
+    if (COMMIT_CACHE_FILE != null && !COMMIT_CACHE_FILE.isEmpty()) {
+      if (commitChangesCache == null) {
+        commitChangesCache = new CommitChangesCache(Path.of(COMMIT_CACHE_FILE), COMMIT_CACHE_MAX_SIZE);
+      }
+      parser.setCache(commitChangesCache);
+    }
+    return parser;
   }
 
   /**
@@ -419,7 +938,7 @@ public class FileGraph extends Graph<FileGraph.Vertex, FileGraph.Edge> {
    * @return Found vertex or null
    */
   public Vertex findVertex(final Path path) {
-    return getNodes().stream().filter(vertex -> vertex.getFilepath().equals(path)).findFirst().orElse(null);
+    return pathToVertex.get(path);
   }
 
   /**
@@ -430,21 +949,34 @@ public class FileGraph extends Graph<FileGraph.Vertex, FileGraph.Edge> {
    * @return Found edge or null
    */
   public Edge findEdge(Vertex from, Vertex to) {
-    return getOutgoingEdges(from).stream().filter(edgeInfo -> edgeInfo.destination().equals(to)).map(Graph.EdgeInfo::edgeData).findFirst().orElse(
-            null);
+    return getEdge(from, to);
+  }
+
+  /**
+   * Freeze the graph into its compact form once construction is finished.
+   *
+   * @return Compact graph weighted by compound weights
+   */
+  public CompactGraph<Vertex> toCompactGraph() {
+    return toCompactGraph(Edge::getCompoundWeight);
   }
 
   /**
    * Add a new vertex to the graph.
+   * Returns the existing vertex if the path is already present.
    *
    * @param fileName Name of the file
    * @param filePath Path to the file
-   * @return Created vertex
+   * @return Created or existing vertex
    */
   private Vertex addVertex(final String fileName, final Path filePath) {
-    Vertex newVertex = new Vertex(fileName, filePath);
-    super.addNode(newVertex);
-    return newVertex;
+    Vertex vertex = pathToVertex.get(filePath);
+    if (vertex == null) {
+      vertex = new Vertex(fileName, filePath);
+      pathToVertex.put(filePath, vertex);
+      super.addNode(vertex);
+    }
+    return vertex;
   }
 
   /**
@@ -476,6 +1008,11 @@ public class FileGraph extends Graph<FileGraph.Vertex, FileGraph.Edge> {
      */
     private final Path filepath;
 
+    /**
+     * Dense id of the vertex within the graph.
+     */
+    private final int id;
+
     /**
      * Number of commits affecting this file.
      */
@@ -500,6 +1037,7 @@ public class FileGraph extends Graph<FileGraph.Vertex, FileGraph.Edge> {
     Vertex(final String file, final Path path) {
       this.filename = file;
       this.filepath = path;
+      this.id = nextVertexId++;
     }
 
     /**
@@ -562,14 +1100,24 @@ public class FileGraph extends Graph<FileGraph.Vertex, FileGraph.Edge> {
     private double compoundWeight = 0;
 
     /**
-     * Number of common commits.
+     * Number of common commits, sampled mass commits count less than one.
+     */
+    private double countCommonCommits = 0;
+
+    /**
+     * Number of common changed lines, weighted like the common commits.
+     */
+    private double countCommonChangedLines = 0;
+
+    /**
+     * Whether the target file mentions the source file name.
      */
-    private int countCommonCommits = 0;
+    private boolean mentioned = false;
 
     /**
-     * Number of common changed lines.
+     * Whether a language analyzer reported the dependency.
      */
-    private int countCommonChangedLines = 0;
+    private boolean languageDependency = false;
 
     /**
      * Create a new edge.
@@ -626,7 +1174,7 @@ public class FileGraph extends Graph<FileGraph.Vertex, FileGraph.Edge> {
      *
      * @return New common commit count
      */
-    public int incrementCountCommonCommits() {
+    public double incrementCountCommonCommits() {
       return this.countCommonCommits += 1;
     }
 
@@ -636,7 +1184,7 @@ public class FileGraph extends Graph<FileGraph.Vertex, FileGraph.Edge> {
      * @param i Number of lines to add
      * @return New common changed lines count
      */
-    public int incrementCountCommonChangedLines(int i) {
+    public double incrementCountCommonChangedLines(int i) {
       return countCommonChangedLines += i;
     }
 
@@ -0,0 +1,196 @@
+package iu.sna.GraphCreator;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UTFDataFormatException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Versioned binary snapshot of a built {@link FileGraph}.
+ * The snapshot is tagged with the HEAD commit it was built from
+ * and with the settings used to build it, a graph may only be
+ * restored from a snapshot with the same tag.
+ *
+ * @param headCommit commit id of HEAD at build time
+ * @param settings   description of the configuration and input files
+ * @param vertices   vertices with their commit counters
+ * @param edges      edges with their counters and weights
+ */
+public record FileGraphSnapshot(String headCommit,
+                                String settings,
+                                List<VertexData> vertices,
+                                List<EdgeData> edges) {
+  /**
+   * Marks snapshot files, reads "FGSN".
+   */
+  private static final int MAGIC = 0x4647534E;
+
+  /**
+   * Format version, increase on every layout change.
+   */
+  private static final int VERSION = 3;
+
+  /**
+   * Stored vertex.
+   *
+   * @param path              path of the file
+   * @param input             whether the file was one of the input files
+   * @param countCommits      number of commits affecting the file
+   * @param totalChangedLines total number of lines changed in the file
+   */
+  public record VertexData(String path, boolean input, int countCommits,
+                           int totalChangedLines) {
+  }
+
+  /**
+   * Stored edge, vertices are referenced by their index.
+   *
+   * @param from                    index of the source vertex
+   * @param to                      index of the target vertex
+   * @param mentioned               whether the target mentions the source
+   * @param languageDependency      whether an analyzer reported the edge
+   * @param compoundWeight          compound weight of the edge
+   * @param countCommonCommits      number of common commits
+   * @param countCommonChangedLines number of common changed lines
+   */
+  public record EdgeData(int from, int to, boolean mentioned,
+                         boolean languageDependency, double compoundWeight,
+                         double countCommonCommits,
+                         double countCommonChangedLines) {
+  }
+
+  /**
+   * Check whether the snapshot was built for the given state.
+   *
+   * @param head             current HEAD commit id
+   * @param expectedSettings current settings description
+   * @param inputs           current input files
+   * @return true if the snapshot can be restored as is
+   */
+  public boolean matches(final String head, final String expectedSettings,
+                         final Collection<Path> inputs) {
+    if (!headCommit.equals(head) || !settings.equals(expectedSettings)) {
+      return false;
+    }
+    Set<String> expectedInputs = new HashSet<>();
+    inputs.forEach(path -> expectedInputs.add(path.toString()));
+    return inputPaths().equals(expectedInputs);
+  }
+
+  /**
+   * Get paths of the files the graph was built for.
+   *
+   * @return paths of the input vertices
+   */
+  public Set<String> inputPaths() {
+    Set<String> paths = new HashSet<>();
+    for (VertexData vertex : vertices) {
+      if (vertex.input()) {
+        paths.add(vertex.path());
+      }
+    }
+    return paths;
+  }
+
+  /**
+   * Write the snapshot, replacing the target file atomically.
+   *
+   * @param file target file
+   * @throws IOException if the file cannot be written
+   */
+  public void write(final Path file) throws IOException {
+    Files.createDirectories(file.toAbsolutePath().getParent());
+    Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+    try (DataOutputStream out = new DataOutputStream(
+            new BufferedOutputStream(Files.newOutputStream(temp)))) {
+      out.writeInt(MAGIC);
+      out.writeInt(VERSION);
+      out.writeUTF(headCommit);
+      out.writeUTF(settings);
+
+      out.writeInt(vertices.size());
+      for (VertexData vertex : vertices) {
+        out.writeUTF(vertex.path());
+        out.writeBoolean(vertex.input());
+        out.writeInt(vertex.countCommits());
+        out.writeInt(vertex.totalChangedLines());
+      }
+
+      out.writeInt(edges.size());
+      for (EdgeData edge : edges) {
+        out.writeInt(edge.from());
+        out.writeInt(edge.to());
+        out.writeBoolean(edge.mentioned());
+        out.writeBoolean(edge.languageDependency());
+        out.writeDouble(edge.compoundWeight());
+        out.writeDouble(edge.countCommonCommits());
+        out.writeDouble(edge.countCommonChangedLines());
+      }
+    }
+    Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING,
+            StandardCopyOption.ATOMIC_MOVE);
+  }
+
+  /**
+   * Read a snapshot.
+   *
+   * @param file snapshot file
+   * @return the snapshot or null if the file is missing, truncated,
+   * corrupt or written in another format version
+   * @throws IOException if the file cannot be read
+   */
+  public static FileGraphSnapshot read(final Path file) throws IOException {
+    if (!Files.isRegularFile(file)) {
+      return null;
+    }
+    try (DataInputStream in = new DataInputStream(
+            new BufferedInputStream(Files.newInputStream(file)))) {
+      if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+        return null;
+      }
+      String headCommit = in.readUTF();
+      String settings = in.readUTF();
+
+      int vertexCount = in.readInt();
+      if (vertexCount < 0) {
+        return null;
+      }
+      List<VertexData> vertices = new ArrayList<>(Math.min(vertexCount, 1 << 16));
+      for (int i = 0; i < vertexCount; i++) {
+        vertices.add(new VertexData(in.readUTF(), in.readBoolean(),
+                in.readInt(), in.readInt()));
+      }
+
+      int edgeCount = in.readInt();
+      if (edgeCount < 0) {
+        return null;
+      }
+      List<EdgeData> edges = new ArrayList<>(Math.min(edgeCount, 1 << 16));
+      for (int i = 0; i < edgeCount; i++) {
+        EdgeData edge = new EdgeData(in.readInt(), in.readInt(),
+                in.readBoolean(), in.readBoolean(), in.readDouble(),
+                in.readDouble(), in.readDouble());
+        if (edge.from() < 0 || edge.from() >= vertexCount
+                || edge.to() < 0 || edge.to() >= vertexCount) {
+          return null;
+        }
+        edges.add(edge);
+      }
+      return new FileGraphSnapshot(headCommit, settings, vertices, edges);
+    } catch (EOFException | UTFDataFormatException e) {
+      // обрезанный или повреждённый файл, граф строится заново
+      return null;
+    }
+  }
+}
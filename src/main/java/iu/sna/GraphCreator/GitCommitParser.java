@@ -1,22 +1,43 @@
 package iu.sna.GraphCreator;
 
-import org.eclipse.jgit.api.Git;
-import org.eclipse.jgit.api.errors.GitAPIException;
+import org.eclipse.jgit.diff.DiffAlgorithm;
 import org.eclipse.jgit.diff.DiffEntry;
 import org.eclipse.jgit.diff.DiffFormatter;
 import org.eclipse.jgit.diff.Edit;
+import org.eclipse.jgit.diff.RawText;
+import org.eclipse.jgit.diff.RawTextComparator;
+import org.eclipse.jgit.errors.MissingObjectException;
+import org.eclipse.jgit.lib.ConfigConstants;
+import org.eclipse.jgit.lib.Constants;
+import org.eclipse.jgit.lib.FileMode;
 import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.ObjectLoader;
+import org.eclipse.jgit.lib.ObjectReader;
 import org.eclipse.jgit.lib.Repository;
 import org.eclipse.jgit.revwalk.RevCommit;
 import org.eclipse.jgit.revwalk.RevWalk;
 import org.eclipse.jgit.treewalk.CanonicalTreeParser;
 import org.eclipse.jgit.treewalk.EmptyTreeIterator;
+import org.eclipse.jgit.util.io.DisabledOutputStream;
 
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.nio.file.Paths;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
 import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
 
 /**
  * Parse input git repository.
@@ -29,6 +50,26 @@ public final class GitCommitParser {
    */
   private final Repository repository;
 
+  /**
+   * Number of workers diffing commits, 1 means sequential.
+   */
+  private int parallelism = 1;
+
+  /**
+   * Blobs larger than this are not diffed, their lines are not counted.
+   */
+  private long maxBlobSize = 8L << 20;
+
+  /**
+   * Maximum number of added or deleted files considered for rename detection.
+   */
+  private int renameLimit = 400;
+
+  /**
+   * Changes of already diffed commits, null when caching is disabled.
+   */
+  private CommitChangesCache cache;
+
   /**
    * Initialize repository
    * which will be parsed.
@@ -40,6 +81,66 @@ public final class GitCommitParser {
 
   }
 
+  /**
+   * Set the number of workers diffing commits.
+   *
+   * @param workers number of workers, non-positive means one per core
+   */
+  public void setParallelism(final int workers) {
+    this.parallelism = workers > 0
+            ? workers
+            : Runtime.getRuntime().availableProcessors();
+  }
+
+  /**
+   * Set the size of the largest blob whose lines are counted.
+   * Larger files are still reported as changed, with no changed lines.
+   *
+   * @param bytes size limit in bytes
+   */
+  public void setMaxBlobSize(final long bytes) {
+    this.maxBlobSize = bytes;
+  }
+
+  /**
+   * Bound the cost of rename detection on huge commits.
+   * Above the limit added and deleted files are reported as they are.
+   *
+   * @param limit maximum number of sources and destinations compared
+   */
+  public void setRenameLimit(final int limit) {
+    this.renameLimit = limit;
+  }
+
+  /**
+   * Read changes of commits from a cache before diffing them
+   * and store the changes of newly diffed commits in it.
+   *
+   * @param changesCache cache of commit changes, null disables caching
+   */
+  public void setCache(final CommitChangesCache changesCache) {
+    this.cache = changesCache;
+  }
+
+  /**
+   * Describe the settings affecting the diff result,
+   * cached changes are only reused for the same description.
+   *
+   * @return settings description
+   */
+  private String describeDiffSettings() {
+    return "algorithm=" + getDiffAlgorithm()
+            + ";renameLimit=" + renameLimit
+            + ";maxBlobSize=" + maxBlobSize;
+  }
+
+  private DiffAlgorithm.SupportedAlgorithm getDiffAlgorithm() {
+    return repository.getConfig().getEnum(
+            ConfigConstants.CONFIG_DIFF_SECTION, null,
+            ConfigConstants.CONFIG_KEY_ALGORITHM,
+            DiffAlgorithm.SupportedAlgorithm.HISTOGRAM);
+  }
+
   /**
    * Launch iteration over first N commits
    * For each commit call getChangedFilesInCommit.
@@ -50,20 +151,223 @@ public final class GitCommitParser {
   public List<List<ChangedFile>> getChangeFilesInFirstNcommits(
           final int numberOfCommits) {
     List<List<ChangedFile>> result = new ArrayList<>();
-    try (Git git = new Git(this.repository)) {
-      Iterable<RevCommit> commits = git.log()
-              .setMaxCount(numberOfCommits)
-              .call();
-      for (RevCommit commit : commits) {
-        List<ChangedFile> changedFiles = getChangedLinesInCommit(
+    try {
+      streamCommits(HistorySelection.lastCommits(numberOfCommits),
+              commit -> result.add(commit.changedFiles()));
+    } catch (IOException e) {
+      throw new RuntimeException(e);
+    }
+    return result;
+  }
 
-                commit.getId()
-        );
-        result.add(changedFiles);
+  /**
+   * Walk the selected history from HEAD and push the changes of every
+   * commit to the consumer in history order, as soon as they are diffed.
+   * At most a few commits per worker are kept in memory at a time,
+   * independently of the history depth.
+   *
+   * @param selection part of the history to walk
+   * @param consumer  receives the changes of every selected commit
+   * @throws IOException if the history cannot be walked
+   */
+  public void streamCommits(final HistorySelection selection,
+                            final Consumer<CommitChanges> consumer)
+          throws IOException {
+    ObjectId headId = repository.resolve(Constants.HEAD);
+    if (headId == null) {
+      return;
+    }
+    String settings = describeDiffSettings();
+    int workers = Math.max(parallelism, 1);
+    BlockingQueue<CommitDiffer> differs = new ArrayBlockingQueue<>(workers);
+    ExecutorService pool = workers > 1
+            ? Executors.newFixedThreadPool(workers)
+            : null;
+    Deque<Future<CommitChanges>> window = new ArrayDeque<>();
+    try (RevWalk revWalk = new RevWalk(repository)) {
+      for (int i = 0; i < workers; i++) {
+        differs.add(new CommitDiffer());
       }
+      selection.configure(revWalk, revWalk.parseCommit(headId));
 
-    } catch (GitAPIException e) {
-      throw new RuntimeException(e);
+      int count = 0;
+      for (RevCommit commit : revWalk) {
+        if (selection.maxCount() > 0 && count++ >= selection.maxCount()) {
+          break;
+        }
+        ObjectId commitId = commit.copy();
+        int commitTime = commit.getCommitTime();
+        String author = commit.getAuthorIdent().getEmailAddress();
+        Callable<CommitChanges> task = () -> new CommitChanges(commitId,
+                commitTime, author, diffWithPool(commitId, settings, differs));
+
+        List<ChangedFile> cached = cache != null
+                ? cache.get(commitId, settings)
+                : null;
+        if (cached != null) {
+          window.add(CompletableFuture.completedFuture(
+                  new CommitChanges(commitId, commitTime, author, cached)));
+        } else if (pool == null) {
+          window.add(CompletableFuture.completedFuture(task.call()));
+        } else {
+          window.add(pool.submit(task));
+        }
+
+        // окно ограничивает число коммитов в памяти
+        if (window.size() >= 2 * workers) {
+          consumer.accept(window.poll().get());
+        }
+      }
+      while (!window.isEmpty()) {
+        consumer.accept(window.poll().get());
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IOException("Commit diffing interrupted", e);
+    } catch (ExecutionException e) {
+      throw new RuntimeException("Error processing commit diff  ", e.getCause());
+    } catch (IOException | RuntimeException e) {
+      throw e;
+    } catch (Exception e) {
+      throw new RuntimeException("Error processing commit diff  ", e);
+    } finally {
+      if (pool != null) {
+        pool.shutdownNow();
+        try {
+          pool.awaitTermination(1, TimeUnit.MINUTES);
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        }
+      }
+      differs.forEach(CommitDiffer::close);
+      saveCache();
+    }
+  }
+
+  /**
+   * Diff a commit with a differ borrowed from the pool
+   * and store the result in the cache.
+   *
+   * @param commitId commit to diff
+   * @param settings diff settings description for the cache
+   * @param differs  pool of idle differs
+   * @return changed files of the commit
+   * @throws InterruptedException if interrupted waiting for a differ
+   */
+  private List<ChangedFile> diffWithPool(final ObjectId commitId,
+                                         final String settings,
+                                         final BlockingQueue<CommitDiffer> differs)
+          throws InterruptedException {
+    CommitDiffer differ = differs.take();
+    try {
+      List<ChangedFile> changedFiles = differ.diff(commitId);
+      if (cache != null) {
+        cache.put(commitId, settings, changedFiles);
+      }
+      return changedFiles;
+    } finally {
+      differs.add(differ);
+    }
+  }
+
+  private void saveCache() {
+    if (cache != null) {
+      try {
+        cache.save();
+      } catch (IOException e) {
+        // кэш только ускоряет повторный анализ
+        System.out.println("Failed to save commit cache: " + e.getMessage());
+      }
+    }
+  }
+
+  /**
+   * Analyze changed files in several commits.
+   * Cached commits are not diffed again, the others are diffed
+   * on the configured number of workers, every worker reuses
+   * its own reader, walk and formatter.
+   *
+   * @param commitIds ids of commits to analyze
+   * @return changed files of every commit in the order of commitIds
+   */
+  public List<List<ChangedFile>> getChangedLinesInCommits(
+          final List<ObjectId> commitIds) {
+    List<List<ChangedFile>> result = new ArrayList<>(commitIds.size());
+    List<Integer> missing = new ArrayList<>();
+    String settings = cache != null ? describeDiffSettings() : null;
+    for (int i = 0; i < commitIds.size(); i++) {
+      List<ChangedFile> cached = cache != null
+              ? cache.get(commitIds.get(i), settings)
+              : null;
+      result.add(cached);
+      if (cached == null) {
+        missing.add(i);
+      }
+    }
+    if (missing.isEmpty()) {
+      return result;
+    }
+
+    List<ObjectId> missingIds = new ArrayList<>(missing.size());
+    missing.forEach(index -> missingIds.add(commitIds.get(index)));
+    List<List<ChangedFile>> diffed = diffCommits(missingIds);
+    for (int i = 0; i < missing.size(); i++) {
+      result.set(missing.get(i), diffed.get(i));
+      if (cache != null) {
+        cache.put(missingIds.get(i), settings, diffed.get(i));
+      }
+    }
+
+    saveCache();
+    return result;
+  }
+
+  /**
+   * Diff commits, in parallel when more than one worker is configured.
+   *
+   * @param commitIds ids of commits to diff
+   * @return changed files of every commit in the order of commitIds
+   */
+  private List<List<ChangedFile>> diffCommits(final List<ObjectId> commitIds) {
+    int workers = Math.min(parallelism, commitIds.size());
+    if (workers <= 1) {
+      List<List<ChangedFile>> result = new ArrayList<>(commitIds.size());
+      try (CommitDiffer differ = new CommitDiffer()) {
+        for (ObjectId commitId : commitIds) {
+          result.add(differ.diff(commitId));
+        }
+      }
+      return result;
+    }
+
+    // каждый индекс записывается одним воркером, чтение после task.get()
+    List<List<ChangedFile>> result = new ArrayList<>(Collections.nCopies(commitIds.size(), null));
+    AtomicInteger next = new AtomicInteger();
+    ExecutorService pool = Executors.newFixedThreadPool(workers);
+    try {
+      List<Future<?>> tasks = new ArrayList<>(workers);
+      for (int i = 0; i < workers; i++) {
+        tasks.add(pool.submit(() -> {
+          try (CommitDiffer differ = new CommitDiffer()) {
+            int index;
+            while ((index = next.getAndIncrement()) < commitIds.size()) {
+              result.set(index, differ.diff(commitIds.get(index)));
+            }
+          }
+        }));
+      }
+      for (Future<?> task : tasks) {
+        task.get();
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new RuntimeException("Commit diffing interrupted", e);
+    } catch (ExecutionException e) {
+      // Остальные воркеры останавливаются в finally
+      next.set(commitIds.size());
+      throw new RuntimeException("Error processing commit diff  ", e.getCause());
+    } finally {
+      pool.shutdownNow();
     }
     return result;
   }
@@ -75,21 +379,43 @@ public final class GitCommitParser {
    * @return List  of changed files and no of changes
    */
   public List<ChangedFile> getChangedLinesInCommit(final ObjectId commitId) {
-    try (RevWalk revWalk = new RevWalk(this.repository)) {
-      RevCommit commit = revWalk.parseCommit(commitId);
-      if (commit == null) {
-        throw new IllegalArgumentException("Invalid commit ID: " + commitId);
-      }
-      RevCommit parentCommit = commit.getParentCount() > 0
-              ? revWalk.parseCommit(commit.getParent(0)
-              .getId())
-              : null;
+    try (CommitDiffer differ = new CommitDiffer()) {
+      return differ.diff(commitId);
+    }
+  }
 
-      try (ByteArrayOutputStream out = new ByteArrayOutputStream();
-           DiffFormatter diffFormatter = new DiffFormatter(out)) {
+  /**
+   * Diffs commits with one reader, walk and formatter,
+   * an instance must be used by one thread at a time.
+   * Changed lines are counted from edit lists of the blobs,
+   * patch text is never rendered.
+   */
+  private final class CommitDiffer implements AutoCloseable {
+    private final ObjectReader reader = repository.newObjectReader();
+    private final RevWalk revWalk = new RevWalk(reader);
+    private final DiffFormatter diffFormatter =
+            new DiffFormatter(DisabledOutputStream.INSTANCE);
+    private final DiffAlgorithm diffAlgorithm =
+            DiffAlgorithm.getAlgorithm(getDiffAlgorithm());
 
-        diffFormatter.setRepository(this.repository);
-        diffFormatter.setDetectRenames(true);
+    CommitDiffer() {
+      diffFormatter.setReader(reader, repository.getConfig());
+      diffFormatter.setDetectRenames(true);
+      diffFormatter.getRenameDetector().setRenameLimit(renameLimit);
+      diffFormatter.getRenameDetector().setBigFileThreshold(
+              (int) Math.min(maxBlobSize, Integer.MAX_VALUE));
+    }
+
+    List<ChangedFile> diff(final ObjectId commitId) {
+      try {
+        RevCommit commit = revWalk.parseCommit(commitId);
+        if (commit == null) {
+          throw new IllegalArgumentException("Invalid commit ID: " + commitId);
+        }
+        RevCommit parentCommit = commit.getParentCount() > 0
+                ? revWalk.parseCommit(commit.getParent(0)
+                .getId())
+                : null;
 
         List<DiffEntry> diffs;
         if (parentCommit != null) {
@@ -97,20 +423,13 @@ public final class GitCommitParser {
         } else {
           diffs = diffFormatter.scan(
                   new EmptyTreeIterator(),
-                  new CanonicalTreeParser(
-                          null, repository.newObjectReader(), commit.getTree())
+                  new CanonicalTreeParser(null, reader, commit.getTree())
           );
         }
 
         List<ChangedFile> changedFiles = new ArrayList<>();
         for (DiffEntry diff : diffs) {
-          int linesChanged = 0;
-          diffFormatter.format(diff);
-          for (Edit edit : diffFormatter.toFileHeader(diff)
-                  .toEditList()) {
-            linesChanged += edit.getEndA() - edit.getBeginA(); // Deleted lines
-            linesChanged += edit.getEndB() - edit.getBeginB(); // Added lines
-          }
+          int linesChanged = countChangedLines(diff);
 
           String path = diff.getChangeType() == DiffEntry.ChangeType.DELETE
                   ? diff.getOldPath()
@@ -122,10 +441,67 @@ public final class GitCommitParser {
         }
 
         return changedFiles;
+      } catch (IOException e) {
+        throw new RuntimeException("Error processing commit diff  ", e);
       }
-    } catch (IOException e) {
-      throw new RuntimeException("Error processing commit diff  ", e);
+    }
+
+    /**
+     * Count deleted and added lines of one file.
+     *
+     * @param diff changed file
+     * @return number of changed lines, 0 for binary or oversized files
+     * @throws IOException if a blob cannot be read
+     */
+    private int countChangedLines(final DiffEntry diff) throws IOException {
+      byte[] oldContent = load(diff.getOldMode(), diff.getOldId().toObjectId());
+      byte[] newContent = load(diff.getNewMode(), diff.getNewId().toObjectId());
+      if (oldContent == null || newContent == null
+              || RawText.isBinary(oldContent) || RawText.isBinary(newContent)) {
+        return 0;
+      }
+
+      int linesChanged = 0;
+      for (Edit edit : diffAlgorithm.diff(RawTextComparator.DEFAULT,
+              new RawText(oldContent), new RawText(newContent))) {
+        linesChanged += edit.getEndA() - edit.getBeginA(); // Deleted lines
+        linesChanged += edit.getEndB() - edit.getBeginB(); // Added lines
+      }
+      return linesChanged;
+    }
+
+    /**
+     * Load a blob of one side of the diff.
+     *
+     * @param mode file mode of the side
+     * @param id   blob id of the side
+     * @return content, empty for a missing side, null if it is not diffable
+     * @throws IOException if the blob cannot be read
+     */
+    private byte[] load(final FileMode mode, final ObjectId id)
+            throws IOException {
+      if (mode == FileMode.MISSING || ObjectId.zeroId().equals(id)) {
+        return new byte[0];
+      }
+      if (mode.getObjectType() != Constants.OBJ_BLOB) {
+        return null;
+      }
+      try {
+        ObjectLoader loader = reader.open(id, Constants.OBJ_BLOB);
+        if (loader.getSize() > maxBlobSize || loader.isLarge()) {
+          return null;
+        }
+        return loader.getCachedBytes();
+      } catch (MissingObjectException e) {
+        return null;
+      }
+    }
+
+    @Override
+    public void close() {
+      diffFormatter.close();
+      revWalk.close();
+      reader.close();
     }
   }
 }
-
@@ -0,0 +1,94 @@
+package iu.sna.GraphCreator;
+
+import org.eclipse.jgit.revwalk.RevCommit;
+import org.eclipse.jgit.revwalk.RevWalk;
+import org.eclipse.jgit.revwalk.filter.AndRevFilter;
+import org.eclipse.jgit.revwalk.filter.AuthorRevFilter;
+import org.eclipse.jgit.revwalk.filter.CommitTimeRevFilter;
+import org.eclipse.jgit.revwalk.filter.OrRevFilter;
+import org.eclipse.jgit.revwalk.filter.RevFilter;
+import org.eclipse.jgit.treewalk.filter.AndTreeFilter;
+import org.eclipse.jgit.treewalk.filter.PathFilterGroup;
+import org.eclipse.jgit.treewalk.filter.TreeFilter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Part of the history analyzed for co-changes.
+ * The time window is counted back from the HEAD commit, not from now,
+ * so the same HEAD always selects the same commits.
+ *
+ * @param maxCount maximum number of commits, non-positive means unlimited
+ * @param days     only commits made at most this many days before HEAD,
+ *                 non-positive means no time window
+ * @param authors  author name or email patterns, empty means any author
+ * @param paths    only commits touching these paths, empty means any path
+ */
+public record HistorySelection(int maxCount, int days, List<String> authors,
+                               List<String> paths) {
+  private static final long SECONDS_PER_DAY = 24L * 60 * 60;
+
+  public HistorySelection {
+    authors = List.copyOf(authors);
+    paths = List.copyOf(paths);
+  }
+
+  /**
+   * Select the last commits regardless of their time, author or paths.
+   *
+   * @param maxCount number of commits
+   * @return selection of the last maxCount commits
+   */
+  public static HistorySelection lastCommits(final int maxCount) {
+    return new HistorySelection(maxCount, 0, List.of(), List.of());
+  }
+
+  /**
+   * Apply the time, author and path filters to a walk starting at HEAD.
+   * The commit count is not enforced by the walk.
+   *
+   * @param revWalk walk to configure
+   * @param head    HEAD commit parsed by the walk
+   * @throws IOException if the start commit cannot be parsed
+   */
+  void configure(final RevWalk revWalk, final RevCommit head)
+          throws IOException {
+    List<RevFilter> filters = new ArrayList<>();
+    if (days > 0) {
+      long since = head.getCommitTime() - days * SECONDS_PER_DAY;
+      filters.add(CommitTimeRevFilter.after(since * 1000));
+    }
+    if (!authors.isEmpty()) {
+      List<RevFilter> authorFilters = new ArrayList<>();
+      authors.forEach(author -> authorFilters.add(AuthorRevFilter.create(author)));
+      filters.add(authorFilters.size() == 1
+              ? authorFilters.get(0)
+              : OrRevFilter.create(authorFilters));
+    }
+    if (filters.size() == 1) {
+      revWalk.setRevFilter(filters.get(0));
+    } else if (filters.size() > 1) {
+      revWalk.setRevFilter(AndRevFilter.create(filters));
+    }
+
+    if (!paths.isEmpty()) {
+      revWalk.setTreeFilter(AndTreeFilter.create(
+              PathFilterGroup.createFromStrings(paths), TreeFilter.ANY_DIFF));
+    }
+    revWalk.markStart(head);
+  }
+
+  /**
+   * Describe the selection for snapshot settings.
+   *
+   * @return selection description
+   */
+  String describe() {
+    return "maxCount=" + maxCount
+            + ";days=" + days
+            + ";authors=" + String.join(",", authors)
+            + ";paths=" + String.join(",", paths);
+  }
+}
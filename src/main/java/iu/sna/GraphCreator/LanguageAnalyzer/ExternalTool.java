@@ -0,0 +1,79 @@
+package iu.sna.GraphCreator.LanguageAnalyzer;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Runs external analysis tools.
+ * The output is read on a separate thread while the caller waits
+ * for the process, so an interrupted caller stops waiting at once
+ * and the process is killed together with its children.
+ */
+public final class ExternalTool {
+  private ExternalTool() {
+  }
+
+  /**
+   * Run a command and collect its output, stderr is merged into stdout.
+   *
+   * @param command command and its arguments
+   * @return output of the command
+   * @throws IOException if the command cannot be started
+   *                     or the calling thread is interrupted
+   */
+  public static String run(List<String> command) throws IOException {
+    StringBuilder output = new StringBuilder();
+    run(command, line -> output.append(line)
+            .append("\n"));
+    return output.toString();
+  }
+
+  /**
+   * Run a command and pass its output to the consumer line by line
+   * as it is produced, stderr is merged into stdout.
+   * The consumer is called from a single reader thread.
+   *
+   * @param command command and its arguments
+   * @param lines   receives every output line
+   * @throws IOException if the command cannot be started
+   *                     or the calling thread is interrupted
+   */
+  public static void run(List<String> command, Consumer<String> lines)
+          throws IOException {
+    ProcessBuilder processBuilder = new ProcessBuilder(command);
+    processBuilder.redirectErrorStream(true);
+    Process process = processBuilder.start();
+
+    Thread pump = Thread.ofVirtual().start(() -> {
+      try (BufferedReader reader =
+                   new BufferedReader(
+                           new InputStreamReader(process.getInputStream()))) {
+        String line;
+        while ((line = reader.readLine()) != null) {
+          lines.accept(line);
+        }
+      } catch (IOException e) {
+        // поток закрывается при уничтожении процесса
+        if (process.isAlive()) {
+          throw new UncheckedIOException(e);
+        }
+      }
+    });
+
+    try {
+      process.waitFor();
+      pump.join();
+    } catch (InterruptedException e) {
+      process.descendants().forEach(ProcessHandle::destroyForcibly);
+      process.destroyForcibly();
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException(
+              "Interrupted while running " + command.get(0));
+    }
+  }
+}
@@ -0,0 +1,216 @@
+package iu.sna.GraphCreator.LanguageAnalyzer;
+
+import org.eclipse.jgit.lib.Constants;
+import org.eclipse.jgit.lib.ObjectId;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UTFDataFormatException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Persistent cache of extracted imports per file content.
+ * Entries are keyed by the git blob id of the content and the analyzer
+ * with its version, so a file is extracted again only when it changes.
+ * Entries are kept in one binary file, the least recently used ones
+ * are evicted above the size cap.
+ */
+public final class ImportCache {
+  /**
+   * Marks cache files, reads "IMPC".
+   */
+  private static final int MAGIC = 0x494D5043;
+
+  /**
+   * Format version, increase on every layout change.
+   */
+  private static final int VERSION = 2;
+
+  /**
+   * Estimated size of an entry without its imports.
+   */
+  private static final int ENTRY_OVERHEAD = Constants.OBJECT_ID_LENGTH + 8;
+
+  /**
+   * Cache file.
+   */
+  private final Path file;
+
+  /**
+   * Maximum estimated size of all entries in bytes.
+   */
+  private final long maxBytes;
+
+  /**
+   * Entries in access order, the eldest is evicted first.
+   */
+  private final LinkedHashMap<Key, List<String>> entries =
+          new LinkedHashMap<>(16, 0.75f, true);
+
+  /**
+   * Estimated size of all entries in bytes.
+   */
+  private long size;
+
+  /**
+   * Whether there are entries not written to the file yet.
+   */
+  private boolean dirty;
+
+  /**
+   * Content analyzed by a given analyzer.
+   *
+   * @param blob     git blob id of the file content
+   * @param analyzer analyzer language and version, {@code language:version}
+   */
+  private record Key(ObjectId blob, String analyzer) {
+  }
+
+  /**
+   * Open a cache, loading the entries stored in the file.
+   * A missing, truncated or corrupt file or a file in another format
+   * version gives an empty cache.
+   *
+   * @param cacheFile cache file
+   * @param maxSize   maximum size of the entries in bytes
+   * @throws IOException if the file exists but cannot be read
+   */
+  public ImportCache(final Path cacheFile, final long maxSize)
+          throws IOException {
+    this.file = cacheFile;
+    this.maxBytes = maxSize;
+    load();
+  }
+
+  /**
+   * Get cached imports of a file content.
+   *
+   * @param blob     git blob id of the content
+   * @param analyzer analyzer language and version
+   * @return imports or null if the content is not cached
+   */
+  public synchronized List<String> get(final ObjectId blob,
+                                       final String analyzer) {
+    return entries.get(new Key(blob.copy(), analyzer));
+  }
+
+  /**
+   * Store imports of a file content, evicting the least recently used
+   * entries when the cache grows over its size cap.
+   *
+   * @param blob     git blob id of the content
+   * @param analyzer analyzer language and version
+   * @param imports  extracted imports
+   */
+  public synchronized void put(final ObjectId blob, final String analyzer,
+                               final List<String> imports) {
+    List<String> previous = entries.put(
+            new Key(blob.copy(), analyzer), List.copyOf(imports));
+    if (previous != null) {
+      size -= estimateSize(previous);
+    }
+    size += estimateSize(imports);
+    dirty = true;
+    evict();
+  }
+
+  /**
+   * Write the cache if it was changed, replacing the file atomically.
+   *
+   * @throws IOException if the file cannot be written
+   */
+  public synchronized void save() throws IOException {
+    if (!dirty) {
+      return;
+    }
+    Files.createDirectories(file.toAbsolutePath().getParent());
+    Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+    try (DataOutputStream out = new DataOutputStream(
+            new BufferedOutputStream(Files.newOutputStream(temp)))) {
+      out.writeInt(MAGIC);
+      out.writeInt(VERSION);
+      out.writeInt(entries.size());
+      byte[] id = new byte[Constants.OBJECT_ID_LENGTH];
+      // от старых к новым, чтобы порядок LRU сохранился при загрузке
+      for (Map.Entry<Key, List<String>> entry : entries.entrySet()) {
+        entry.getKey().blob().copyRawTo(id, 0);
+        out.write(id);
+        out.writeUTF(entry.getKey().analyzer());
+        out.writeInt(entry.getValue().size());
+        for (String imp : entry.getValue()) {
+          out.writeUTF(imp);
+        }
+      }
+    }
+    Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING,
+            StandardCopyOption.ATOMIC_MOVE);
+    dirty = false;
+  }
+
+  private void load() throws IOException {
+    if (!Files.isRegularFile(file)) {
+      return;
+    }
+    try (DataInputStream in = new DataInputStream(
+            new BufferedInputStream(Files.newInputStream(file)))) {
+      if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+        return;
+      }
+      int count = in.readInt();
+      byte[] id = new byte[Constants.OBJECT_ID_LENGTH];
+      for (int i = 0; i < count; i++) {
+        in.readFully(id);
+        Key key = new Key(ObjectId.fromRaw(id), in.readUTF());
+        int importCount = in.readInt();
+        if (importCount < 0) {
+          clear();
+          return;
+        }
+        List<String> imports = new ArrayList<>(Math.min(importCount, 1 << 10));
+        for (int j = 0; j < importCount; j++) {
+          imports.add(in.readUTF());
+        }
+        entries.put(key, imports);
+        size += estimateSize(imports);
+      }
+    } catch (EOFException | UTFDataFormatException e) {
+      // обрезанный или повреждённый файл, импорты извлекаются заново
+      clear();
+      return;
+    }
+    evict();
+  }
+
+  private void clear() {
+    entries.clear();
+    size = 0;
+  }
+
+  private void evict() {
+    Iterator<List<String>> eldest = entries.values().iterator();
+    while (size > maxBytes && eldest.hasNext()) {
+      size -= estimateSize(eldest.next());
+      eldest.remove();
+      dirty = true;
+    }
+  }
+
+  private static long estimateSize(final List<String> imports) {
+    long bytes = ENTRY_OVERHEAD;
+    for (String imp : imports) {
+      bytes += 2 + imp.length();
+    }
+    return bytes;
+  }
+}
@@ -0,0 +1,62 @@
+package iu.sna.GraphCreator.LanguageAnalyzer;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Analyzer whose work splits into extraction of the imports of every
+ * file, which depends only on the file content, and their resolution
+ * against the current set of files. Extracted imports are plain strings
+ * in a format of the analyzer, so they can be cached by file content.
+ */
+public interface ImportExtractingAnalyzer extends LanguageAnalyzer {
+  /**
+   * Get the version of the extracted import format and of the settings
+   * affecting it, cached imports of another version are not used.
+   *
+   * @return analyzer version
+   */
+  String getVersion();
+
+  /**
+   * Get the number of threads the analyzer extracts imports on.
+   *
+   * @return number of extracting threads
+   */
+  int getParallelism();
+
+  /**
+   * Check whether extracting the imports of a file is about as cheap
+   * as reading it whole, then hashing the file for the cache saves
+   * nothing and the analyzer is run directly.
+   *
+   * @return true if the imports should not be cached
+   */
+  default boolean isExtractionCheap() {
+    return false;
+  }
+
+  /**
+   * Extract the unresolved imports of a file.
+   *
+   * @param file file path
+   * @return imports in the format of the analyzer, null if the file
+   *         cannot be read or parsed
+   * @throws IOException if the extraction is interrupted
+   */
+  List<String> extractImports(String file) throws IOException;
+
+  /**
+   * Resolve extracted imports against the files.
+   *
+   * @param sources files whose dependencies are needed
+   * @param imports extracted imports of all files of the language
+   * @return dependencies whose source is one of the source files
+   * @throws IOException if the resolution fails
+   */
+  List<Map.Entry<Path, Path>> resolveImports(
+          List<String> sources,
+          Map<String, List<String>> imports) throws IOException;
+}
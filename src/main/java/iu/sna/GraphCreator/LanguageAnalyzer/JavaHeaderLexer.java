@@ -0,0 +1,361 @@
+package iu.sna.GraphCreator.LanguageAnalyzer;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Reads the package and import declarations of a Java file without
+ * building an AST. The file is lexed as raw bytes and reading stops
+ * at the first type declaration, so usually only the first few
+ * kilobytes are touched. Whatever the lexer does not understand,
+ * e.g. unicode escapes or an unexpected token, makes it give up
+ * and leave the file to the full parser.
+ */
+final class JavaHeaderLexer {
+  /**
+   * Keywords that may start a top-level type declaration.
+   */
+  private static final Set<String> TYPE_KEYWORDS =
+          Set.of("class", "interface", "enum", "record");
+
+  /**
+   * Modifiers that may precede a top-level type declaration.
+   */
+  private static final Set<String> MODIFIERS = Set.of("public", "protected",
+          "private", "abstract", "static", "final", "sealed", "strictfp");
+
+  /**
+   * Marks the end of the input.
+   */
+  private static final int EOF = -1;
+
+  private final InputStream in;
+  private int next;
+
+  private JavaHeaderLexer(InputStream in) throws IOException {
+    this.in = in;
+    this.next = in.read();
+    // пропускаем BOM в UTF-8
+    if (next == 0xEF) {
+      in.mark(2);
+      if (in.read() == 0xBB && in.read() == 0xBF) {
+        this.next = in.read();
+      } else {
+        in.reset();
+      }
+    }
+  }
+
+  /**
+   * Read the header of a file.
+   *
+   * @param path file to read
+   * @return the header without used names, or null if the file must
+   *         be parsed by the full parser
+   * @throws IOException if the file cannot be read
+   */
+  static JavaParserAnalyzer.ParsedFile read(Path path) throws IOException {
+    try (InputStream in = new BufferedInputStream(Files.newInputStream(path))) {
+      return new JavaHeaderLexer(in).readHeader(path);
+    } catch (MalformedHeaderException e) {
+      return null;
+    }
+  }
+
+  private JavaParserAnalyzer.ParsedFile readHeader(Path path) throws IOException {
+    String packageName = "";
+    List<JavaParserAnalyzer.Import> imports = new ArrayList<>();
+    List<String> typeNames = new ArrayList<>();
+
+    String token = nextToken();
+    // аннотации пакета допустимы только перед package
+    while ("@".equals(token)) {
+      token = skipAnnotation();
+      if (token == null) {
+        return null;
+      }
+    }
+    if ("package".equals(token)) {
+      packageName = readQualifiedName();
+      if (packageName == null) {
+        return null;
+      }
+      token = nextToken();
+    }
+    while (true) {
+      if (";".equals(token)) {
+        token = nextToken();
+      } else if ("import".equals(token)) {
+        JavaParserAnalyzer.Import imp = readImport();
+        if (imp == null) {
+          return null;
+        }
+        imports.add(imp);
+        token = nextToken();
+      } else {
+        break;
+      }
+    }
+
+    // модификаторы и аннотации перед первым типом, затем его имя
+    while (token != null && !TYPE_KEYWORDS.contains(token)) {
+      if ("@".equals(token)) {
+        token = nextToken();
+        if ("interface".equals(token)) {
+          break;
+        }
+        token = skipAnnotationAfterAt(token);
+        if (token == null) {
+          return null;
+        }
+      } else if (MODIFIERS.contains(token) || "non".equals(token)
+              || "-".equals(token)) {
+        token = nextToken();
+      } else if ("module".equals(token) || "open".equals(token)) {
+        // module-info.java не объявляет типов
+        break;
+      } else {
+        return null;
+      }
+    }
+    if (token != null && (TYPE_KEYWORDS.contains(token) || "interface".equals(token))) {
+      String name = nextToken();
+      if (name == null || !isIdentifier(name)) {
+        return null;
+      }
+      typeNames.add(name);
+    }
+    return new JavaParserAnalyzer.ParsedFile(path, packageName, typeNames,
+            imports, Set.of());
+  }
+
+  private JavaParserAnalyzer.Import readImport() throws IOException {
+    String token = nextToken();
+    boolean isStatic = "static".equals(token);
+    if (isStatic) {
+      token = nextToken();
+    }
+    if (token == null || !isIdentifier(token)) {
+      return null;
+    }
+    StringBuilder name = new StringBuilder(token);
+    while (true) {
+      token = nextToken();
+      if (";".equals(token)) {
+        return new JavaParserAnalyzer.Import(name.toString(), isStatic, false);
+      }
+      if (!".".equals(token)) {
+        return null;
+      }
+      token = nextToken();
+      if ("*".equals(token)) {
+        return ";".equals(nextToken())
+                ? new JavaParserAnalyzer.Import(name.toString(), isStatic, true)
+                : null;
+      }
+      if (token == null || !isIdentifier(token)) {
+        return null;
+      }
+      name.append('.').append(token);
+    }
+  }
+
+  /**
+   * Read a dotted name terminated by a semicolon.
+   */
+  private String readQualifiedName() throws IOException {
+    StringBuilder name = new StringBuilder();
+    String token = nextToken();
+    while (token != null && isIdentifier(token)) {
+      if (!name.isEmpty()) {
+        name.append('.');
+      }
+      name.append(token);
+      token = nextToken();
+      if (";".equals(token)) {
+        return name.toString();
+      }
+      if (!".".equals(token)) {
+        return null;
+      }
+      token = nextToken();
+    }
+    return null;
+  }
+
+  /**
+   * Skip an annotation whose @ has been read.
+   *
+   * @return the token after the annotation or null if it is malformed
+   */
+  private String skipAnnotation() throws IOException {
+    return skipAnnotationAfterAt(nextToken());
+  }
+
+  private String skipAnnotationAfterAt(String token) throws IOException {
+    if (token == null || !isIdentifier(token)) {
+      return null;
+    }
+    token = nextToken();
+    while (".".equals(token)) {
+      token = nextToken();
+      if (token == null || !isIdentifier(token)) {
+        return null;
+      }
+      token = nextToken();
+    }
+    if (!"(".equals(token)) {
+      return token;
+    }
+    int depth = 1;
+    while (depth > 0) {
+      token = nextToken();
+      if (token == null) {
+        return null;
+      } else if ("(".equals(token)) {
+        depth++;
+      } else if (")".equals(token)) {
+        depth--;
+      }
+    }
+    return nextToken();
+  }
+
+  /**
+   * Read the next token: an identifier, keyword or number, a string or
+   * char literal (returned as a quote), or a single punctuation character.
+   *
+   * @return the token or null at the end of the input
+   * @throws IOException if the input cannot be read or uses unicode escapes
+   */
+  private String nextToken() throws IOException {
+    skipWhitespaceAndComments();
+    if (next == EOF) {
+      return null;
+    }
+    if (isIdentifierPart(next)) {
+      byte[] buffer = new byte[64];
+      int length = 0;
+      while (next != EOF && isIdentifierPart(next)) {
+        if (length == buffer.length) {
+          buffer = Arrays.copyOf(buffer, length * 2);
+        }
+        buffer[length++] = (byte) next;
+        next = in.read();
+      }
+      return new String(buffer, 0, length, StandardCharsets.UTF_8);
+    }
+    int current = next;
+    next = in.read();
+    if (current == '"' || current == '\'') {
+      skipLiteral(current);
+      return "\"";
+    }
+    if (current == '\\') {
+      throw new MalformedHeaderException();
+    }
+    return String.valueOf((char) current);
+  }
+
+  private void skipWhitespaceAndComments() throws IOException {
+    while (true) {
+      while (next == ' ' || next == '\t' || next == '\n' || next == '\r'
+              || next == '\f') {
+        next = in.read();
+      }
+      if (next != '/') {
+        return;
+      }
+      in.mark(1);
+      int second = in.read();
+      if (second == '/') {
+        while (next != EOF && next != '\n') {
+          next = in.read();
+        }
+      } else if (second == '*') {
+        int previous = 0;
+        next = in.read();
+        while (next != EOF && !(previous == '*' && next == '/')) {
+          previous = next;
+          next = in.read();
+        }
+        if (next == EOF) {
+          throw new MalformedHeaderException();
+        }
+        next = in.read();
+      } else {
+        in.reset();
+        return;
+      }
+    }
+  }
+
+  /**
+   * Skip a string, text block or char literal whose opening quote was read.
+   */
+  private void skipLiteral(int quote) throws IOException {
+    if (quote == '"' && next == '"') {
+      next = in.read();
+      if (next != '"') {
+        // пустая строка ""
+        return;
+      }
+      // текстовый блок до """
+      int quotes = 0;
+      next = in.read();
+      while (next != EOF && quotes < 3) {
+        if (next == '\\') {
+          next = in.read();
+          quotes = 0;
+        } else {
+          quotes = next == '"' ? quotes + 1 : 0;
+        }
+        next = in.read();
+      }
+      if (quotes < 3) {
+        throw new MalformedHeaderException();
+      }
+      return;
+    }
+    while (next != quote) {
+      if (next == EOF || next == '\n') {
+        throw new MalformedHeaderException();
+      }
+      if (next == '\\') {
+        next = in.read();
+      }
+      next = in.read();
+    }
+    next = in.read();
+  }
+
+  private static boolean isIdentifierPart(int b) {
+    // байты многобайтовых символов UTF-8 считаем частью идентификатора
+    return (b >= 'a' && b <= 'z') || (b >= 'A' && b <= 'Z')
+            || (b >= '0' && b <= '9') || b == '_' || b == '$' || b >= 0x80;
+  }
+
+  private static boolean isIdentifier(String token) {
+    char first = token.charAt(0);
+    return isIdentifierPart(first) && !(first >= '0' && first <= '9');
+  }
+
+  /**
+   * Thrown when the header cannot be lexed, the file goes to the full parser.
+   */
+  static final class MalformedHeaderException extends IOException {
+    private static final long serialVersionUID = 1L;
+
+    MalformedHeaderException() {
+      super("Malformed Java header");
+    }
+  }
+}
@@ -1,9 +1,16 @@
 package iu.sna.GraphCreator.LanguageAnalyzer;
 
 import com.github.javaparser.JavaParser;
+import com.github.javaparser.ParseResult;
+import com.github.javaparser.ParserConfiguration;
 import com.github.javaparser.ast.CompilationUnit;
 import com.github.javaparser.ast.ImportDeclaration;
-import org.springframework.stereotype.Component;
+import com.github.javaparser.ast.PackageDeclaration;
+import com.github.javaparser.ast.body.TypeDeclaration;
+import com.github.javaparser.ast.expr.AnnotationExpr;
+import com.github.javaparser.ast.expr.Name;
+import com.github.javaparser.ast.expr.NameExpr;
+import com.github.javaparser.ast.type.ClassOrInterfaceType;
 
 import java.io.IOException;
 import java.nio.file.NoSuchFileException;
@@ -11,42 +18,188 @@ import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Resolves Java imports to the files of the project.
+ * All files are parsed once in parallel, their package declarations and
+ * type names form an index from fully qualified names to files.
+ * Single type, wildcard and static imports and references to types of
+ * the same package are resolved through this index.
+ *
+ * <p>In header-only mode files are not parsed: their package and import
+ * declarations are read by {@link JavaHeaderLexer}, only files it cannot
+ * read go to the parser. References to types without an import are
+ * not known then, same-package and wildcard imported types are missed.
+ */
+public class JavaParserAnalyzer implements ImportExtractingAnalyzer {
+  /**
+   * Number of parsing threads.
+   */
+  private final int parallelism;
+
+  /**
+   * Whether only package and import declarations are read.
+   */
+  private final boolean headerOnly;
+
+  /**
+   * Parser of each worker, a JavaParser instance is not thread-safe.
+   */
+  private final ThreadLocal<JavaParser> parsers =
+          ThreadLocal.withInitial(JavaParserAnalyzer::createParser);
+
+  /**
+   * Import declaration of a file.
+   *
+   * @param name       imported name without the asterisk
+   * @param isStatic   whether the import is static
+   * @param isAsterisk whether the import ends with an asterisk
+   */
+  record Import(String name, boolean isStatic, boolean isAsterisk) {
+  }
+
+  /**
+   * What the resolution needs to know about a parsed file.
+   *
+   * @param path        file path as given by the caller
+   * @param packageName declared package, empty for the default package
+   * @param typeNames   simple names of the top-level types
+   * @param imports     import declarations
+   * @param usedNames   simple names the file may refer to types by
+   */
+  record ParsedFile(Path path, String packageName, List<String> typeNames,
+                    List<Import> imports, Set<String> usedNames) {
+  }
+
+  /**
+   * Create an analyzer parsing on one thread per core.
+   */
+  public JavaParserAnalyzer() {
+    this(0, false);
+  }
+
+  /**
+   * Create an analyzer.
+   *
+   * @param parallelism number of parsing threads, non-positive means one per core
+   * @param headerOnly  read only package and import declarations
+   */
+  public JavaParserAnalyzer(int parallelism, boolean headerOnly) {
+    this.headerOnly = headerOnly;
+    this.parallelism = parallelism > 0
+            ? parallelism
+            : Runtime.getRuntime().availableProcessors();
+  }
 
-public class JavaParserAnalyzer implements LanguageAnalyzer {
   @Override
   public List<Map.Entry<Path, Path>> analyzeDependencies(
           List<String> fileString) throws IOException {
-    StringBuffer dependencies = new StringBuffer();
-    JavaParser parser = new JavaParser();
-    List<Map.Entry<Path, Path>> res = new ArrayList<>();
-    for (String filepath : fileString) {
-      try {
-
-
-        Path p1 = Paths.get(filepath);
-        CompilationUnit cu = parser.parse(p1)
-                .getResult()
-                .get();
-        for (ImportDeclaration imp : cu.getImports()) {
-          String importName = imp.getNameAsString();
-          importName = importName.replace(".", "/") + ".java";
-          // looking for the file which ends with import name
-          // java parser parses Java utils imports
-          // we need to verify that file presents in input
-          for (String targetFile : fileString) {
-            if (targetFile.endsWith(importName)) {
-              Path p2 = Paths.get(targetFile);
-              res.add(Map.entry(p1, p2));
-            }
-          }
+    return analyzeDependencies(fileString, fileString);
+  }
+
+  @Override
+  public List<Map.Entry<Path, Path>> analyzeDependencies(
+          List<String> sources,
+          List<String> fileString) throws IOException {
+    Set<String> allFiles = new LinkedHashSet<>(fileString);
+    allFiles.addAll(sources);
+    return resolveParsed(sources, parseAll(new ArrayList<>(allFiles)));
+  }
+
+  @Override
+  public String getVersion() {
+    return headerOnly ? "1-header" : "1";
+  }
+
+  @Override
+  public int getParallelism() {
+    return parallelism;
+  }
+
+  /**
+   * Reading only the header touches less of a file than hashing it.
+   */
+  @Override
+  public boolean isExtractionCheap() {
+    return headerOnly;
+  }
+
+  /**
+   * Extract the header of a file, one line per fact:
+   * P package, T type, I import, S static import, W wildcard import,
+   * X static wildcard import and U used simple name.
+   */
+  @Override
+  public List<String> extractImports(String file) {
+    ParsedFile parsed = parseFile(file);
+    if (parsed == null) {
+      return null;
+    }
+    List<String> lines = new ArrayList<>();
+    lines.add("P" + parsed.packageName());
+    parsed.typeNames().forEach(type -> lines.add("T" + type));
+    for (Import imp : parsed.imports()) {
+      char kind = imp.isStatic()
+              ? (imp.isAsterisk() ? 'X' : 'S')
+              : (imp.isAsterisk() ? 'W' : 'I');
+      lines.add(kind + imp.name());
+    }
+    parsed.usedNames().forEach(name -> lines.add("U" + name));
+    return lines;
+  }
+
+  @Override
+  public List<Map.Entry<Path, Path>> resolveImports(
+          List<String> sources,
+          Map<String, List<String>> imports) {
+    List<ParsedFile> parsed = new ArrayList<>(imports.size());
+    imports.forEach((file, lines) -> parsed.add(decode(file, lines)));
+    return resolveParsed(sources, parsed);
+  }
+
+  private static ParsedFile decode(String file, List<String> lines) {
+    String packageName = "";
+    List<String> typeNames = new ArrayList<>();
+    List<Import> imports = new ArrayList<>();
+    Set<String> usedNames = new HashSet<>();
+    for (String line : lines) {
+      String value = line.substring(1);
+      switch (line.charAt(0)) {
+        case 'P' -> packageName = value;
+        case 'T' -> typeNames.add(value);
+        case 'I' -> imports.add(new Import(value, false, false));
+        case 'S' -> imports.add(new Import(value, true, false));
+        case 'W' -> imports.add(new Import(value, false, true));
+        case 'X' -> imports.add(new Import(value, true, true));
+        case 'U' -> usedNames.add(value);
+        default -> {
+          // неизвестные строки пропускаем
         }
-      } catch (NoSuchFileException e) {
-        System.out.println("No such file: " + e);
       }
     }
+    return new ParsedFile(Paths.get(file), packageName, typeNames, imports, usedNames);
+  }
 
+  private List<Map.Entry<Path, Path>> resolveParsed(List<String> sources,
+                                                    List<ParsedFile> parsed) {
+    Set<String> sourceSet = new HashSet<>(sources);
+    Map<String, List<Path>> index = buildIndex(parsed);
+    List<Map.Entry<Path, Path>> res = new ArrayList<>();
+    for (ParsedFile file : parsed) {
+      if (sourceSet.contains(file.path().toString())) {
+        for (Path target : resolve(file, index)) {
+          res.add(Map.entry(file.path(), target));
+        }
+      }
+    }
     return res;
   }
 
@@ -54,4 +207,154 @@ public class JavaParserAnalyzer implements LanguageAnalyzer {
   public String getLanguage() {
     return "java";
   }
+
+  private static JavaParser createParser() {
+    ParserConfiguration configuration = new ParserConfiguration()
+            .setAttributeComments(false)
+            .setStoreTokens(false);
+    return new JavaParser(configuration);
+  }
+
+  private List<ParsedFile> parseAll(List<String> files) throws IOException {
+    ForkJoinPool pool = new ForkJoinPool(parallelism);
+    try {
+      return pool.submit(() -> files.parallelStream()
+                      .map(this::parseFile)
+                      .filter(Objects::nonNull)
+                      .toList())
+              .get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IOException("Java parsing interrupted", e);
+    } catch (ExecutionException e) {
+      throw new IOException("Java parsing failed", e.getCause());
+    } finally {
+      pool.shutdownNow();
+    }
+  }
+
+  private ParsedFile parseFile(String filepath) {
+    Path path = Paths.get(filepath);
+    ParseResult<CompilationUnit> result;
+    try {
+      if (headerOnly) {
+        ParsedFile header = JavaHeaderLexer.read(path);
+        if (header != null) {
+          return header;
+        }
+      }
+      result = parsers.get().parse(path);
+    } catch (NoSuchFileException e) {
+      System.out.println("No such file: " + e);
+      return null;
+    } catch (IOException e) {
+      System.out.println("Cannot read " + filepath + ": " + e.getMessage());
+      return null;
+    }
+    if (result.getResult().isEmpty()) {
+      System.out.println("Cannot parse " + filepath);
+      return null;
+    }
+    CompilationUnit cu = result.getResult().get();
+
+    String packageName = cu.getPackageDeclaration()
+            .map(PackageDeclaration::getNameAsString)
+            .orElse("");
+    List<String> typeNames = new ArrayList<>();
+    for (TypeDeclaration<?> type : cu.getTypes()) {
+      typeNames.add(type.getNameAsString());
+    }
+    List<Import> imports = new ArrayList<>();
+    for (ImportDeclaration imp : cu.getImports()) {
+      imports.add(new Import(imp.getNameAsString(), imp.isStatic(), imp.isAsterisk()));
+    }
+
+    // имена, которыми файл может ссылаться на типы без полного имени
+    Set<String> usedNames = new HashSet<>();
+    cu.walk(node -> {
+      if (node instanceof ClassOrInterfaceType type) {
+        while (type.getScope().isPresent()) {
+          type = type.getScope().get();
+        }
+        usedNames.add(type.getNameAsString());
+      } else if (node instanceof NameExpr name) {
+        usedNames.add(name.getNameAsString());
+      } else if (node instanceof AnnotationExpr annotation) {
+        Name name = annotation.getName();
+        while (name.getQualifier().isPresent()) {
+          name = name.getQualifier().get();
+        }
+        usedNames.add(name.getIdentifier());
+      }
+    });
+    return new ParsedFile(path, packageName, typeNames, imports, usedNames);
+  }
+
+  /**
+   * Index files by the fully qualified names of their top-level types.
+   * The type named after the file is indexed even if the file
+   * declares no types, several files may declare the same name.
+   */
+  static Map<String, List<Path>> buildIndex(List<ParsedFile> files) {
+    Map<String, List<Path>> index = new HashMap<>();
+    for (ParsedFile file : files) {
+      Set<String> names = new LinkedHashSet<>(file.typeNames());
+      String fileName = file.path().getFileName().toString();
+      names.add(fileName.endsWith(".java")
+              ? fileName.substring(0, fileName.length() - ".java".length())
+              : fileName);
+      for (String name : names) {
+        index.computeIfAbsent(qualify(file.packageName(), name),
+                k -> new ArrayList<>(1)).add(file.path());
+      }
+    }
+    return index;
+  }
+
+  /**
+   * Resolve the dependencies of a file through the index.
+   */
+  static Set<Path> resolve(ParsedFile file, Map<String, List<Path>> index) {
+    Set<Path> targets = new LinkedHashSet<>();
+    for (Import imp : file.imports()) {
+      if (imp.isAsterisk() && !imp.isStatic()) {
+        // import a.b.*: типы пакета, на которые файл ссылается,
+        // либо вложенные типы класса a.b
+        for (String name : file.usedNames()) {
+          targets.addAll(index.getOrDefault(qualify(imp.name(), name), List.of()));
+        }
+      }
+      // для a.b.C.Inner и статических a.b.C.member ищем самый длинный тип
+      targets.addAll(resolveType(imp.name(), index));
+    }
+    for (String name : file.usedNames()) {
+      targets.addAll(index.getOrDefault(qualify(file.packageName(), name), List.of()));
+    }
+    targets.remove(file.path());
+    return targets;
+  }
+
+  private static List<Path> resolveType(String name,
+                                        Map<String, List<Path>> index) {
+    String candidate = name;
+    while (true) {
+      List<Path> files = index.get(candidate);
+      if (files != null) {
+        return files;
+      }
+      int dot = candidate.lastIndexOf('.');
+      if (dot < 0) {
+        return List.of();
+      }
+      candidate = candidate.substring(0, dot);
+      if (candidate.indexOf('.') < 0) {
+        // не сводим имя к одному сегменту, это был бы тип пакета по умолчанию
+        return List.of();
+      }
+    }
+  }
+
+  private static String qualify(String packageName, String name) {
+    return packageName.isEmpty() ? name : packageName + "." + name;
+  }
 }
@@ -4,13 +4,37 @@ import ch.qos.logback.core.joran.sanity.Pair;
 
 import java.io.IOException;
 import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 public interface LanguageAnalyzer {
   List<Map.Entry<Path, Path>> analyzeDependencies(
           List<String> fileString) throws IOException;
 
+  /**
+   * Analyze dependencies of the source files only.
+   * All files remain candidates for import resolution.
+   * By default the whole file set is analyzed and the result is filtered,
+   * analyzers that can resolve imports per file should override it.
+   *
+   * @param sources  files whose dependencies are needed
+   * @param allFiles all files of the language
+   * @return dependencies whose source is one of the source files
+   * @throws IOException if the analysis fails
+   */
+  default List<Map.Entry<Path, Path>> analyzeDependencies(
+          List<String> sources,
+          List<String> allFiles) throws IOException {
+    Set<Path> sourcePaths = new HashSet<>();
+    sources.forEach(source -> sourcePaths.add(Paths.get(source)));
+    return analyzeDependencies(allFiles).stream()
+            .filter(entry -> sourcePaths.contains(entry.getKey()))
+            .toList();
+  }
+
   String getLanguage();
 
 }
@@ -1,31 +1,281 @@
 package iu.sna.GraphCreator.LanguageAnalyzer;
 
+import org.eclipse.jgit.lib.Constants;
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.ObjectInserter;
+
 import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class LanguageAnalyzerService {
   private Map<String, LanguageAnalyzer> analyzers;
 
+  /**
+   * Imports of file contents already analyzed, null if not configured.
+   */
+  private final ImportCache importCache;
+
+  /**
+   * Threads extracting imports of files missing in the cache, shared by
+   * all languages so concurrent runs do not multiply the thread count.
+   * Created on first use with the largest parallelism of the analyzers.
+   */
+  private ForkJoinPool extractionPool;
+
   public LanguageAnalyzerService(List<LanguageAnalyzer> analyzerList) {
+    this(analyzerList, null);
+  }
+
+  /**
+   * Create a service whose import-extracting analyzers reuse
+   * the imports of unchanged files.
+   *
+   * @param analyzerList analyzers, one per language
+   * @param importCache  cache of extracted imports, may be null
+   */
+  public LanguageAnalyzerService(List<LanguageAnalyzer> analyzerList,
+                                 ImportCache importCache) {
     analyzers = new HashMap<>();
     for (LanguageAnalyzer analyzer : analyzerList) {
       analyzers.put(analyzer.getLanguage(), analyzer);
     }
+    this.importCache = importCache;
   }
 
   public List<Map.Entry<Path, Path>> AnalyzeDependencies(
           String language,
           List<String> fileString) throws IOException {
     LanguageAnalyzer langAnalyzer = analyzers.get(language);
-    if (langAnalyzer != null) {
+    if (langAnalyzer instanceof ImportExtractingAnalyzer extracting
+            && importCache != null && !extracting.isExtractionCheap()) {
+      return analyzeCached(extracting, fileString, fileString);
+    } else if (langAnalyzer != null) {
       return langAnalyzer.analyzeDependencies(fileString);
     } else {
       System.out.println("The analyzer for language "
               + language + " is not implemented yet");
+      return List.of();
+    }
+  }
+
+  public List<Map.Entry<Path, Path>> AnalyzeDependencies(
+          String language,
+          List<String> sources,
+          List<String> fileString) throws IOException {
+    LanguageAnalyzer langAnalyzer = analyzers.get(language);
+    if (langAnalyzer instanceof ImportExtractingAnalyzer extracting
+            && importCache != null && !extracting.isExtractionCheap()) {
+      return analyzeCached(extracting, sources, fileString);
+    } else if (langAnalyzer != null) {
+      return langAnalyzer.analyzeDependencies(sources, fileString);
+    } else {
+      System.out.println("The analyzer for language "
+              + language + " is not implemented yet");
+      return List.of();
+    }
+  }
+
+  /**
+   * Analyze files reusing the cached imports of unchanged contents.
+   * Every file is hashed as a git blob, only files whose blob is not
+   * cached are extracted, then all imports are resolved in memory.
+   *
+   * @param analyzer analyzer of the language
+   * @param sources  files whose dependencies are needed
+   * @param allFiles all files of the language
+   * @return dependencies whose source is one of the source files
+   * @throws IOException if the analysis is interrupted or fails
+   */
+  private List<Map.Entry<Path, Path>> analyzeCached(
+          ImportExtractingAnalyzer analyzer,
+          List<String> sources,
+          List<String> allFiles) throws IOException {
+    String version = analyzer.getLanguage() + ":" + analyzer.getVersion();
+    Set<String> fileSet = new LinkedHashSet<>(allFiles);
+    fileSet.addAll(sources);
+    List<String> files = new ArrayList<>(fileSet);
+
+    AtomicInteger reused = new AtomicInteger();
+    // пул общий, поэтому прерванный запуск останавливаем флагом
+    AtomicBoolean abandoned = new AtomicBoolean();
+    List<List<String>> extracted;
+    try {
+      extracted = extractionPool().submit(() -> files.parallelStream()
+                      .map(file -> abandoned.get()
+                              ? null
+                              : extractCached(analyzer, version, file, reused))
+                      .toList())
+              .get();
+    } catch (InterruptedException e) {
+      abandoned.set(true);
+      Thread.currentThread().interrupt();
+      throw new IOException("Import extraction interrupted", e);
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof UncheckedIOException cause) {
+        throw cause.getCause();
+      }
+      throw new IOException("Import extraction failed", e.getCause());
+    }
+
+    Map<String, List<String>> imports = new LinkedHashMap<>();
+    for (int i = 0; i < files.size(); i++) {
+      if (extracted.get(i) != null) {
+        imports.put(files.get(i), extracted.get(i));
+      }
+    }
+    System.out.println("Import cache: " + reused.get() + " of " + files.size()
+            + " " + analyzer.getLanguage() + " files reused");
+    return analyzer.resolveImports(sources, imports);
+  }
+
+  private synchronized ForkJoinPool extractionPool() {
+    if (extractionPool == null) {
+      int parallelism = 1;
+      for (LanguageAnalyzer analyzer : analyzers.values()) {
+        if (analyzer instanceof ImportExtractingAnalyzer extracting) {
+          parallelism = Math.max(parallelism, extracting.getParallelism());
+        }
+      }
+      extractionPool = new ForkJoinPool(parallelism);
+    }
+    return extractionPool;
+  }
+
+  private List<String> extractCached(ImportExtractingAnalyzer analyzer,
+                                     String version,
+                                     String file,
+                                     AtomicInteger reused) {
+    ObjectId blob;
+    try {
+      blob = new ObjectInserter.Formatter().idFor(Constants.OBJ_BLOB,
+              Files.readAllBytes(Paths.get(file)));
+    } catch (IOException e) {
+      System.out.println("Cannot read " + file + ": " + e.getMessage());
       return null;
     }
+    List<String> imports = importCache.get(blob, version);
+    if (imports != null) {
+      reused.incrementAndGet();
+      return imports;
+    }
+    try {
+      imports = analyzer.extractImports(file);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    if (imports != null) {
+      importCache.put(blob, version, imports);
+    }
+    return imports;
+  }
+
+  /**
+   * Analyze all files of several languages at once.
+   *
+   * @param files   files of each language
+   * @param timeout time budget of each run, zero or negative means none
+   * @return dependencies by language, in the order of language names
+   * @throws IOException if an analyzer fails
+   * @see #analyzeConcurrently(Map, Map, Duration)
+   */
+  public Map<String, List<Map.Entry<Path, Path>>> analyzeConcurrently(
+          Map<String, List<String>> files,
+          Duration timeout) throws IOException {
+    return runConcurrently(files.keySet(), timeout,
+            language -> AnalyzeDependencies(language, files.get(language)));
+  }
+
+  /**
+   * Analyze several languages at once, every language on its own
+   * virtual thread. Each run gets the same time budget counted from
+   * the start, runs exceeding it are cancelled and yield no dependencies.
+   *
+   * @param sources  files whose dependencies are needed, by language
+   * @param allFiles all files of each language
+   * @param timeout  time budget of each run, zero or negative means none
+   * @return dependencies by language, in the order of language names
+   * @throws IOException if an analyzer fails
+   */
+  public Map<String, List<Map.Entry<Path, Path>>> analyzeConcurrently(
+          Map<String, List<String>> sources,
+          Map<String, List<String>> allFiles,
+          Duration timeout) throws IOException {
+    return runConcurrently(sources.keySet(), timeout,
+            language -> AnalyzeDependencies(language, sources.get(language),
+                    allFiles.getOrDefault(language, sources.get(language))));
+  }
+
+  /**
+   * One analysis run of a language.
+   */
+  @FunctionalInterface
+  private interface Analysis {
+    List<Map.Entry<Path, Path>> run(String language) throws IOException;
+  }
+
+  private Map<String, List<Map.Entry<Path, Path>>> runConcurrently(
+          Collection<String> languages,
+          Duration timeout,
+          Analysis analysis) throws IOException {
+    Map<String, Future<List<Map.Entry<Path, Path>>>> runs = new LinkedHashMap<>();
+    // Не используем close(): он ждал бы анализаторы, игнорирующие прерывание
+    ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    try {
+      for (String language : new TreeSet<>(languages)) {
+        runs.put(language, executor.submit(() -> analysis.run(language)));
+      }
+
+      long deadline = System.nanoTime() + timeout.toNanos();
+      Map<String, List<Map.Entry<Path, Path>>> result = new LinkedHashMap<>();
+      for (Map.Entry<String, Future<List<Map.Entry<Path, Path>>>> run : runs.entrySet()) {
+        Future<List<Map.Entry<Path, Path>>> future = run.getValue();
+        try {
+          result.put(run.getKey(), timeout.isZero() || timeout.isNegative()
+                  ? future.get()
+                  : future.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS));
+        } catch (TimeoutException e) {
+          future.cancel(true);
+          System.out.println("The analyzer for language "
+                  + run.getKey() + " timed out after " + timeout.toSeconds() + " s");
+          result.put(run.getKey(), List.of());
+        }
+      }
+      if (importCache != null) {
+        importCache.save();
+      }
+      return result;
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IOException("Language analysis interrupted", e);
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof IOException cause) {
+        throw cause;
+      }
+      throw new IOException("Language analysis failed", e.getCause());
+    } finally {
+      executor.shutdownNow();
+    }
   }
 }
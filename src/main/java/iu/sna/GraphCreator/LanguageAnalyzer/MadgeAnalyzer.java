@@ -0,0 +1,193 @@
+package iu.sna.GraphCreator.LanguageAnalyzer;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Dependency analysis of JavaScript-like languages with madge.
+ * Files are split into shards of bounded size and argument length.
+ * By default shards are sent to a warm madge worker process shared
+ * for the lifetime of the JVM, without it they run as parallel madge
+ * processes whose DOT output is parsed line by line while it is produced.
+ */
+public abstract class MadgeAnalyzer implements LanguageAnalyzer {
+  private static final ObjectMapper MAPPER = new ObjectMapper();
+  private static final Pattern DEPENDENCY_PATTERN =
+          Pattern.compile("\"([^\"]*)\"\\s*->\\s*\"([^\"]*)\"");
+
+  /**
+   * Maximum number of files passed to one madge process.
+   */
+  private static final int MAX_FILES_PER_SHARD = 500;
+
+  /**
+   * Maximum total length of file arguments of one madge process,
+   * well below the argument limits of common operating systems.
+   */
+  private static final int MAX_ARGUMENT_CHARS = 64 * 1024;
+
+  /**
+   * Number of madge processes running at once.
+   */
+  private static final int PARALLELISM =
+          Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+
+  /**
+   * Whether shards are sent to the warm worker.
+   */
+  private final boolean useWorker;
+
+  protected MadgeAnalyzer() {
+    this(true);
+  }
+
+  /**
+   * Create an analyzer.
+   *
+   * @param useWorker whether to use the warm worker process when available
+   */
+  protected MadgeAnalyzer(boolean useWorker) {
+    this.useWorker = useWorker;
+  }
+
+  @Override
+  public List<Map.Entry<Path, Path>> analyzeDependencies(
+          List<String> fileList) throws IOException {
+    if (fileList.isEmpty()) {
+      return List.of();
+    }
+    // общий basedir: пути во всех шардах относительны одной директории
+    String baseDir = commonDirectory(fileList);
+    List<List<String>> shards = shard(fileList);
+
+    Set<Map.Entry<Path, Path>> res =
+            Collections.synchronizedSet(new LinkedHashSet<>());
+    if (shards.size() == 1) {
+      runShard(baseDir, shards.get(0), res);
+      return new ArrayList<>(res);
+    }
+
+    ExecutorService executor = Executors.newFixedThreadPool(
+            Math.min(PARALLELISM, shards.size()));
+    try {
+      List<Future<?>> runs = new ArrayList<>();
+      for (List<String> shard : shards) {
+        runs.add(executor.submit(() -> {
+          runShard(baseDir, shard, res);
+          return null;
+        }));
+      }
+      for (Future<?> run : runs) {
+        run.get();
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException("Interrupted while running madge");
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof IOException cause) {
+        throw cause;
+      }
+      throw new IOException("Madge failed", e.getCause());
+    } finally {
+      // прерывает остальные шарды и завершает их процессы
+      executor.shutdownNow();
+    }
+    synchronized (res) {
+      return new ArrayList<>(res);
+    }
+  }
+
+  private void runShard(String baseDir, List<String> files,
+                        Set<Map.Entry<Path, Path>> res) throws IOException {
+    ToolWorker worker = useWorker ? ToolWorker.get("node", "madge-worker.js") : null;
+    if (worker != null && worker.isAvailable()) {
+      ObjectNode request = MAPPER.createObjectNode();
+      request.put("baseDir", baseDir);
+      ArrayNode fileArray = request.putArray("files");
+      files.forEach(fileArray::add);
+      for (JsonNode dependency : worker.request(request).path("dependencies")) {
+        res.add(Map.entry(Paths.get(dependency.get(0).asText()),
+                Paths.get(dependency.get(1).asText())));
+      }
+      return;
+    }
+
+    List<String> command = new ArrayList<>();
+    command.add("npx");
+    command.add("madge");
+    command.add("--dot");
+    command.add("--basedir");
+    command.add(baseDir);
+    command.addAll(files);
+
+    ExternalTool.run(command, line -> {
+      Matcher matcher = DEPENDENCY_PATTERN.matcher(line);
+      while (matcher.find()) {
+        Path p1 = Paths.get(matcher.group(1));
+        Path p2 = Paths.get(matcher.group(2));
+        res.add(Map.entry(p1, p2));
+      }
+    });
+  }
+
+  /**
+   * Split files into shards limited by count and argument length.
+   *
+   * @param files files to split
+   * @return shards in the order of the files
+   */
+  static List<List<String>> shard(List<String> files) {
+    List<List<String>> shards = new ArrayList<>();
+    List<String> current = new ArrayList<>();
+    int chars = 0;
+    for (String file : files) {
+      if (!current.isEmpty() && (current.size() >= MAX_FILES_PER_SHARD
+              || chars + file.length() + 1 > MAX_ARGUMENT_CHARS)) {
+        shards.add(current);
+        current = new ArrayList<>();
+        chars = 0;
+      }
+      current.add(file);
+      chars += file.length() + 1;
+    }
+    shards.add(current);
+    return shards;
+  }
+
+  /**
+   * Find the deepest directory containing all files,
+   * madge reports paths relative to it when run on all files at once.
+   *
+   * @param files file paths
+   * @return common directory
+   */
+  static String commonDirectory(List<String> files) {
+    Path common = Paths.get(files.get(0)).toAbsolutePath().getParent();
+    for (String file : files) {
+      Path path = Paths.get(file).toAbsolutePath();
+      while (common != null && !path.startsWith(common)) {
+        common = common.getParent();
+      }
+    }
+    return common != null ? common.toString() : "/";
+  }
+}
@@ -0,0 +1,172 @@
+package iu.sna.GraphCreator.LanguageAnalyzer;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Dependency analysis of JavaScript and TypeScript without Node.
+ * Imports are found by {@link NodeImportScanner} and resolved by
+ * {@link NodeModuleResolver}, files are processed in parallel.
+ * One instance serves one language, as the madge analyzers do.
+ */
+public class NodeImportAnalyzer implements ImportExtractingAnalyzer {
+  private final String language;
+
+  /**
+   * Number of scanning threads.
+   */
+  private final int parallelism;
+
+  /**
+   * Create an analyzer scanning on one thread per core.
+   *
+   * @param language language name, javascript or typescript
+   */
+  public NodeImportAnalyzer(String language) {
+    this(language, 0);
+  }
+
+  /**
+   * Create an analyzer.
+   *
+   * @param language    language name, javascript or typescript
+   * @param parallelism number of scanning threads, non-positive means one per core
+   */
+  public NodeImportAnalyzer(String language, int parallelism) {
+    this.language = language;
+    this.parallelism = parallelism > 0
+            ? parallelism
+            : Runtime.getRuntime().availableProcessors();
+  }
+
+  @Override
+  public List<Map.Entry<Path, Path>> analyzeDependencies(
+          List<String> fileString) throws IOException {
+    return analyzeDependencies(fileString, fileString);
+  }
+
+  @Override
+  public List<Map.Entry<Path, Path>> analyzeDependencies(
+          List<String> sources,
+          List<String> fileString) throws IOException {
+    Map<Path, String> files = new HashMap<>();
+    for (String file : fileString) {
+      files.putIfAbsent(normalize(file), file);
+    }
+    for (String file : sources) {
+      files.putIfAbsent(normalize(file), file);
+    }
+    NodeModuleResolver resolver = new NodeModuleResolver(files);
+
+    ForkJoinPool pool = new ForkJoinPool(parallelism);
+    try {
+      return pool.submit(() -> sources.parallelStream()
+                      .distinct()
+                      .flatMap(source -> resolveFile(source, readSpecifiers(source),
+                              resolver).stream())
+                      .toList())
+              .get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IOException(language + " import analysis interrupted", e);
+    } catch (ExecutionException e) {
+      throw new IOException(language + " import analysis failed", e.getCause());
+    } finally {
+      pool.shutdownNow();
+    }
+  }
+
+  @Override
+  public String getLanguage() {
+    return language;
+  }
+
+  @Override
+  public String getVersion() {
+    return "1";
+  }
+
+  @Override
+  public int getParallelism() {
+    return parallelism;
+  }
+
+  /**
+   * Extract the module specifiers of a file, one per line.
+   */
+  @Override
+  public List<String> extractImports(String file) {
+    return readSpecifiers(file);
+  }
+
+  @Override
+  public List<Map.Entry<Path, Path>> resolveImports(
+          List<String> sources,
+          Map<String, List<String>> imports) {
+    Map<Path, String> files = new HashMap<>();
+    for (String file : imports.keySet()) {
+      files.putIfAbsent(normalize(file), file);
+    }
+    NodeModuleResolver resolver = new NodeModuleResolver(files);
+    List<Map.Entry<Path, Path>> res = new ArrayList<>();
+    for (String source : new LinkedHashSet<>(sources)) {
+      res.addAll(resolveFile(source, imports.get(source), resolver));
+    }
+    return res;
+  }
+
+  /**
+   * Read the module specifiers of a file.
+   *
+   * @return specifiers or null if the file cannot be read
+   */
+  private static List<String> readSpecifiers(String file) {
+    try {
+      return NodeImportScanner.scan(new String(Files.readAllBytes(normalize(file)),
+              StandardCharsets.UTF_8));
+    } catch (IOException e) {
+      System.out.println("Cannot read " + file + ": " + e.getMessage());
+      return null;
+    }
+  }
+
+  private static Path normalize(String file) {
+    return Paths.get(file).toAbsolutePath().normalize();
+  }
+
+  private static List<Map.Entry<Path, Path>> resolveFile(
+          String source,
+          List<String> specifiers,
+          NodeModuleResolver resolver) {
+    if (specifiers == null) {
+      return List.of();
+    }
+    Path path = normalize(source);
+    Set<String> targets = new LinkedHashSet<>();
+    for (String specifier : specifiers) {
+      String target = resolver.resolve(path, specifier);
+      if (target != null) {
+        targets.add(target);
+      }
+    }
+    targets.remove(source);
+
+    List<Map.Entry<Path, Path>> res = new ArrayList<>(targets.size());
+    Path from = Paths.get(source);
+    for (String target : targets) {
+      res.add(Map.entry(from, Paths.get(target)));
+    }
+    return res;
+  }
+}
@@ -0,0 +1,341 @@
+package iu.sna.GraphCreator.LanguageAnalyzer;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Finds module specifiers in JavaScript and TypeScript sources:
+ * static {@code import} and {@code export ... from} declarations,
+ * {@code require(...)}, dynamic {@code import(...)} and
+ * {@code import x = require(...)}. The source is split into tokens,
+ * comments, template literals and regular expressions are skipped,
+ * so specifier-like text inside them is not reported.
+ */
+final class NodeImportScanner {
+  /**
+   * Keywords after which a slash starts a regular expression.
+   */
+  private static final Set<String> REGEX_KEYWORDS = Set.of("return", "typeof",
+          "case", "do", "else", "in", "of", "new", "delete", "void", "throw",
+          "instanceof", "yield", "await");
+
+  /**
+   * Maximum number of tokens between import and from,
+   * protects against scanning a broken file to its end.
+   */
+  private static final int MAX_CLAUSE_TOKENS = 4096;
+
+  /**
+   * Kind of a token.
+   */
+  private enum Kind {
+    NAME, STRING, TEMPLATE, PUNCTUATION, END
+  }
+
+  private final String source;
+  private int position;
+
+  /**
+   * Braces opened so far, counted to find the end of {@code ${...}}.
+   */
+  private int braceDepth;
+
+  /**
+   * Brace depths at which template substitutions were opened.
+   */
+  private final Deque<Integer> templates = new ArrayDeque<>();
+
+  private Kind kind;
+  private String text;
+
+  /**
+   * Previous significant token, decides between division and regular expression.
+   */
+  private Kind previousKind = Kind.PUNCTUATION;
+  private String previousText = ";";
+
+  private NodeImportScanner(String source) {
+    this.source = source;
+  }
+
+  /**
+   * Find the module specifiers of a source.
+   *
+   * @param source JavaScript or TypeScript source
+   * @return specifiers in the order of the source
+   */
+  static List<String> scan(String source) {
+    return new NodeImportScanner(source).scanAll();
+  }
+
+  private List<String> scanAll() {
+    List<String> specifiers = new ArrayList<>();
+    next();
+    while (kind != Kind.END) {
+      boolean member = previousKind == Kind.PUNCTUATION && ".".equals(previousText);
+      if (kind == Kind.NAME && !member && "import".equals(text)) {
+        next();
+        scanImport(specifiers);
+      } else if (kind == Kind.NAME && !member && "export".equals(text)) {
+        next();
+        scanExport(specifiers);
+      } else if (kind == Kind.NAME && !member && "require".equals(text)) {
+        next();
+        scanCall(specifiers);
+      } else {
+        next();
+      }
+    }
+    return specifiers;
+  }
+
+  private void scanImport(List<String> specifiers) {
+    if (isPunctuation("(")) {
+      // import('x')
+      scanCall(specifiers);
+      return;
+    }
+    if (kind == Kind.STRING) {
+      // import 'x'
+      specifiers.add(text);
+      next();
+      return;
+    }
+    if (isPunctuation(".")) {
+      // import.meta
+      return;
+    }
+    for (int i = 0; i < MAX_CLAUSE_TOKENS && kind != Kind.END; i++) {
+      if (isPunctuation(";") || isPunctuation("=")) {
+        // import x = require('x') найдёт основной цикл
+        return;
+      }
+      if (kind == Kind.NAME && "from".equals(text)) {
+        next();
+        if (kind == Kind.STRING) {
+          specifiers.add(text);
+          next();
+          return;
+        }
+      } else {
+        next();
+      }
+    }
+  }
+
+  private void scanExport(List<String> specifiers) {
+    if (kind == Kind.NAME && "type".equals(text)) {
+      next();
+    }
+    if (isPunctuation("*")) {
+      // export * from 'x', export * as ns from 'x'
+      next();
+      if (kind == Kind.NAME && "as".equals(text)) {
+        next();
+        next();
+      }
+    } else if (isPunctuation("{")) {
+      int depth = braceDepth - 1;
+      while (kind != Kind.END && !(isPunctuation("}") && braceDepth == depth)) {
+        next();
+      }
+      next();
+    } else {
+      return;
+    }
+    if (kind == Kind.NAME && "from".equals(text)) {
+      next();
+      if (kind == Kind.STRING) {
+        specifiers.add(text);
+        next();
+      }
+    }
+  }
+
+  /**
+   * Read the argument of require(...) or import(...) if it is a literal.
+   */
+  private void scanCall(List<String> specifiers) {
+    if (!isPunctuation("(")) {
+      return;
+    }
+    next();
+    if (kind == Kind.STRING || kind == Kind.TEMPLATE && text != null) {
+      String specifier = text;
+      next();
+      if (isPunctuation(")") || isPunctuation(",")) {
+        specifiers.add(specifier);
+      }
+    }
+  }
+
+  private boolean isPunctuation(String value) {
+    return kind == Kind.PUNCTUATION && value.equals(text);
+  }
+
+  /**
+   * Move to the next token.
+   */
+  private void next() {
+    if (kind != null && kind != Kind.END) {
+      previousKind = kind;
+      previousText = text;
+    }
+    skipWhitespaceAndComments();
+    if (position >= source.length()) {
+      kind = Kind.END;
+      text = null;
+      return;
+    }
+    char c = source.charAt(position);
+    if (Character.isJavaIdentifierStart(c) || c == '#') {
+      int start = position++;
+      while (position < source.length()
+              && Character.isJavaIdentifierPart(source.charAt(position))) {
+        position++;
+      }
+      kind = Kind.NAME;
+      text = source.substring(start, position);
+    } else if (Character.isDigit(c)) {
+      int start = position++;
+      while (position < source.length()
+              && (Character.isLetterOrDigit(source.charAt(position))
+              || source.charAt(position) == '.' || source.charAt(position) == '_')) {
+        position++;
+      }
+      kind = Kind.NAME;
+      text = source.substring(start, position);
+    } else if (c == '"' || c == '\'') {
+      kind = Kind.STRING;
+      text = readString(c);
+    } else if (c == '`') {
+      position++;
+      kind = Kind.TEMPLATE;
+      text = readTemplate(true);
+    } else if (c == '/' && regexAllowed()) {
+      skipRegex();
+      kind = Kind.NAME;
+      text = "/regex/";
+    } else {
+      position++;
+      kind = Kind.PUNCTUATION;
+      text = String.valueOf(c);
+      if (c == '{') {
+        braceDepth++;
+      } else if (c == '}') {
+        braceDepth--;
+        if (!templates.isEmpty() && templates.peek() == braceDepth) {
+          // конец ${...}, продолжаем шаблонную строку
+          templates.pop();
+          kind = Kind.TEMPLATE;
+          text = readTemplate(false);
+        }
+      }
+    }
+  }
+
+  private boolean regexAllowed() {
+    if (previousKind == Kind.NAME) {
+      return REGEX_KEYWORDS.contains(previousText);
+    }
+    if (previousKind == Kind.PUNCTUATION) {
+      return !")".equals(previousText) && !"]".equals(previousText);
+    }
+    return false;
+  }
+
+  private void skipWhitespaceAndComments() {
+    while (position < source.length()) {
+      char c = source.charAt(position);
+      if (Character.isWhitespace(c)) {
+        position++;
+      } else if (source.startsWith("//", position)) {
+        int end = source.indexOf('\n', position);
+        position = end < 0 ? source.length() : end + 1;
+      } else if (source.startsWith("/*", position)) {
+        int end = source.indexOf("*/", position + 2);
+        position = end < 0 ? source.length() : end + 2;
+      } else {
+        return;
+      }
+    }
+  }
+
+  /**
+   * Read a quoted string, an unterminated string ends at the line end.
+   */
+  private String readString(char quote) {
+    StringBuilder value = new StringBuilder();
+    position++;
+    while (position < source.length()) {
+      char c = source.charAt(position++);
+      if (c == quote) {
+        return value.toString();
+      }
+      if (c == '\n') {
+        break;
+      }
+      if (c == '\\' && position < source.length()) {
+        value.append(source.charAt(position++));
+      } else {
+        value.append(c);
+      }
+    }
+    return value.toString();
+  }
+
+  /**
+   * Read a template literal part up to its end or the next substitution.
+   *
+   * @param start whether the part starts at the opening backtick
+   * @return the literal text, or null if it has substitutions
+   */
+  private String readTemplate(boolean start) {
+    StringBuilder value = new StringBuilder();
+    while (position < source.length()) {
+      char c = source.charAt(position++);
+      if (c == '`') {
+        return start ? value.toString() : null;
+      }
+      if (c == '\\' && position < source.length()) {
+        value.append(source.charAt(position++));
+      } else if (c == '$' && position < source.length()
+              && source.charAt(position) == '{') {
+        position++;
+        templates.push(braceDepth);
+        braceDepth++;
+        return null;
+      } else {
+        value.append(c);
+      }
+    }
+    return null;
+  }
+
+  private void skipRegex() {
+    boolean inClass = false;
+    position++;
+    while (position < source.length()) {
+      char c = source.charAt(position++);
+      if (c == '\\') {
+        position++;
+      } else if (c == '[') {
+        inClass = true;
+      } else if (c == ']') {
+        inClass = false;
+      } else if (c == '/' && !inClass) {
+        break;
+      } else if (c == '\n') {
+        // не регулярное выражение, не уходим дальше строки
+        break;
+      }
+    }
+    while (position < source.length()
+            && Character.isLetter(source.charAt(position))) {
+      position++;
+    }
+  }
+}
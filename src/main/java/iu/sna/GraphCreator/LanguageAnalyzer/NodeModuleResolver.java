@@ -0,0 +1,413 @@
+package iu.sna.GraphCreator.LanguageAnalyzer;
+
+import com.fasterxml.jackson.core.json.JsonReadFeature;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Resolves module specifiers to the scanned files with the rules of
+ * Node and TypeScript: relative paths with extension probing and index
+ * files, {@code paths} and {@code baseUrl} of the nearest
+ * {@code tsconfig.json} or {@code jsconfig.json}, and packages of the
+ * project found by their {@code package.json}, with {@code exports},
+ * {@code types} and {@code main}. Only files of the scanned set are
+ * returned, imports of installed packages resolve to nothing.
+ * Configuration files are read once per directory and shared by threads.
+ */
+final class NodeModuleResolver {
+  /**
+   * tsconfig.json allows comments and trailing commas.
+   */
+  private static final ObjectMapper MAPPER = JsonMapper.builder()
+          .enable(JsonReadFeature.ALLOW_JAVA_COMMENTS)
+          .enable(JsonReadFeature.ALLOW_TRAILING_COMMA)
+          .build();
+
+  /**
+   * Extensions probed for a specifier without one, in TypeScript order.
+   */
+  private static final List<String> EXTENSIONS = List.of(".ts", ".tsx",
+          ".d.ts", ".js", ".jsx", ".mjs", ".cjs", ".mts", ".cts");
+
+  /**
+   * Conditions of package exports that may lead to sources.
+   */
+  private static final Set<String> CONDITIONS = Set.of("types", "import",
+          "require", "module", "node", "browser", "default", "development",
+          "source");
+
+  /**
+   * How many extends of a tsconfig are followed.
+   */
+  private static final int MAX_EXTENDS = 8;
+
+  /**
+   * Scanned files by normalized absolute path.
+   */
+  private final Map<Path, String> files;
+
+  /**
+   * Compiler options of the nearest config by directory.
+   */
+  private final Map<Path, Optional<CompilerOptions>> compilerOptions =
+          new ConcurrentHashMap<>();
+
+  /**
+   * Project packages by name.
+   */
+  private final Map<String, Path> packages = new ConcurrentHashMap<>();
+
+  /**
+   * Parsed package.json by package directory.
+   */
+  private final Map<Path, Optional<JsonNode>> manifests =
+          new ConcurrentHashMap<>();
+
+  /**
+   * Module resolution settings of a tsconfig.
+   *
+   * @param baseUrl   directory of non-relative specifiers, may be null
+   * @param paths     path patterns to their substitutions, may be null
+   * @param pathsBase directory the substitutions are relative to
+   */
+  private record CompilerOptions(Path baseUrl, JsonNode paths, Path pathsBase) {
+  }
+
+  /**
+   * Create a resolver and find the packages of the project.
+   *
+   * @param files scanned files by normalized absolute path
+   */
+  NodeModuleResolver(Map<Path, String> files) {
+    this.files = files;
+    Set<Path> visited = new HashSet<>();
+    for (Path file : files.keySet()) {
+      // package.json ищем в каталогах со сканируемыми файлами и выше
+      for (Path directory = file.getParent(); directory != null
+              && visited.add(directory); directory = directory.getParent()) {
+        String name = readManifest(directory)
+                .map(manifest -> manifest.path("name").asText(""))
+                .orElse("");
+        if (!name.isEmpty()) {
+          packages.putIfAbsent(name, directory);
+        }
+      }
+    }
+  }
+
+  /**
+   * Resolve a specifier of a file.
+   *
+   * @param importer  normalized absolute path of the importing file
+   * @param specifier module specifier
+   * @return input path of the resolved file or null
+   */
+  String resolve(Path importer, String specifier) {
+    int query = indexOfAny(specifier, '?', '#');
+    if (query > 0) {
+      specifier = specifier.substring(0, query);
+    }
+    if (specifier.isEmpty() || specifier.startsWith("node:")) {
+      return null;
+    }
+    if (specifier.startsWith("./") || specifier.startsWith("../")
+            || specifier.equals(".") || specifier.equals("..")) {
+      return resolvePath(importer.getParent().resolve(specifier).normalize());
+    }
+    if (specifier.startsWith("/")) {
+      return resolvePath(Path.of(specifier).normalize());
+    }
+
+    Optional<CompilerOptions> options = findCompilerOptions(importer.getParent());
+    if (options.isPresent()) {
+      String resolved = resolveWithCompilerOptions(options.get(), specifier);
+      if (resolved != null) {
+        return resolved;
+      }
+    }
+    return resolvePackage(importer, specifier);
+  }
+
+  private String resolveWithCompilerOptions(CompilerOptions options,
+                                            String specifier) {
+    JsonNode paths = options.paths();
+    if (paths != null) {
+      // сначала точное совпадение, затем шаблон с самым длинным префиксом
+      String bestPattern = null;
+      String bestMatch = null;
+      for (Iterator<String> it = paths.fieldNames(); it.hasNext(); ) {
+        String pattern = it.next();
+        int star = pattern.indexOf('*');
+        if (star < 0) {
+          if (pattern.equals(specifier)) {
+            bestPattern = pattern;
+            bestMatch = "";
+            break;
+          }
+        } else if (specifier.startsWith(pattern.substring(0, star))
+                && specifier.endsWith(pattern.substring(star + 1))
+                && specifier.length() >= pattern.length() - 1
+                && (bestPattern == null || star > bestPattern.indexOf('*'))) {
+          bestPattern = pattern;
+          bestMatch = specifier.substring(star,
+                  specifier.length() - (pattern.length() - star - 1));
+        }
+      }
+      if (bestPattern != null) {
+        for (JsonNode substitution : paths.path(bestPattern)) {
+          String target = substitution.asText().replace("*", bestMatch);
+          String resolved = resolvePath(options.pathsBase().resolve(target).normalize());
+          if (resolved != null) {
+            return resolved;
+          }
+        }
+      }
+    }
+    if (options.baseUrl() != null) {
+      return resolvePath(options.baseUrl().resolve(specifier).normalize());
+    }
+    return null;
+  }
+
+  private String resolvePackage(Path importer, String specifier) {
+    String[] parts = specifier.split("/");
+    int nameParts = specifier.startsWith("@") && parts.length > 1 ? 2 : 1;
+    String name = String.join("/", List.of(parts).subList(0, nameParts));
+    String subpath = parts.length > nameParts
+            ? "./" + String.join("/", List.of(parts).subList(nameParts, parts.length))
+            : ".";
+
+    Path directory = packages.get(name);
+    if (directory == null) {
+      // установленный пакет внутри сканируемого дерева
+      for (Path dir = importer.getParent(); dir != null; dir = dir.getParent()) {
+        Path candidate = dir.resolve("node_modules").resolve(name);
+        if (readManifest(candidate).isPresent()) {
+          directory = candidate;
+          break;
+        }
+      }
+    }
+    if (directory == null) {
+      return null;
+    }
+
+    JsonNode manifest = readManifest(directory).orElse(null);
+    if (manifest != null && manifest.has("exports")) {
+      for (String target : exportTargets(manifest.get("exports"), subpath)) {
+        String resolved = resolvePath(directory.resolve(target).normalize());
+        if (resolved != null) {
+          return resolved;
+        }
+      }
+    }
+    if (subpath.equals(".") && manifest != null) {
+      for (String field : List.of("source", "types", "typings", "module", "main")) {
+        String entry = manifest.path(field).asText("");
+        if (!entry.isEmpty()) {
+          String resolved = resolvePath(directory.resolve(entry).normalize());
+          if (resolved != null) {
+            return resolved;
+          }
+        }
+      }
+    }
+    return resolvePath(directory.resolve(subpath).normalize());
+  }
+
+  /**
+   * Find the targets of a subpath in package exports, in condition order.
+   */
+  private static List<String> exportTargets(JsonNode exports, String subpath) {
+    List<String> targets = new ArrayList<>();
+    boolean subpaths = exports.isObject() && exports.fieldNames().hasNext()
+            && exports.fieldNames().next().startsWith(".");
+    if (!subpaths) {
+      if (subpath.equals(".")) {
+        collectTargets(exports, "", targets);
+      }
+      return targets;
+    }
+    if (exports.has(subpath)) {
+      collectTargets(exports.get(subpath), "", targets);
+      return targets;
+    }
+    String bestPattern = null;
+    for (Iterator<String> it = exports.fieldNames(); it.hasNext(); ) {
+      String pattern = it.next();
+      int star = pattern.indexOf('*');
+      if (star >= 0 && subpath.startsWith(pattern.substring(0, star))
+              && subpath.endsWith(pattern.substring(star + 1))
+              && (bestPattern == null || star > bestPattern.indexOf('*'))) {
+        bestPattern = pattern;
+      }
+    }
+    if (bestPattern != null) {
+      int star = bestPattern.indexOf('*');
+      String match = subpath.substring(star,
+              subpath.length() - (bestPattern.length() - star - 1));
+      collectTargets(exports.get(bestPattern), match, targets);
+    }
+    return targets;
+  }
+
+  private static void collectTargets(JsonNode target, String match,
+                                     List<String> targets) {
+    if (target.isTextual()) {
+      targets.add(target.asText().replace("*", match));
+    } else if (target.isArray()) {
+      target.forEach(item -> collectTargets(item, match, targets));
+    } else if (target.isObject()) {
+      target.fields().forEachRemaining(condition -> {
+        if (CONDITIONS.contains(condition.getKey())) {
+          collectTargets(condition.getValue(), match, targets);
+        }
+      });
+    }
+  }
+
+  /**
+   * Resolve a path as a file, with probed extensions, or as a directory.
+   */
+  private String resolvePath(Path path) {
+    String file = resolveFile(path);
+    if (file != null) {
+      return file;
+    }
+    JsonNode manifest = readManifest(path).orElse(null);
+    if (manifest != null) {
+      for (String field : List.of("types", "typings", "module", "main")) {
+        String entry = manifest.path(field).asText("");
+        if (!entry.isEmpty()) {
+          file = resolveFile(path.resolve(entry).normalize());
+          if (file != null) {
+            return file;
+          }
+        }
+      }
+    }
+    return resolveFile(path.resolve("index"));
+  }
+
+  private String resolveFile(Path path) {
+    String file = files.get(path);
+    if (file != null) {
+      return file;
+    }
+    String name = path.getFileName() != null ? path.getFileName().toString() : "";
+    for (String extension : EXTENSIONS) {
+      file = files.get(path.resolveSibling(name + extension));
+      if (file != null) {
+        return file;
+      }
+    }
+    // TypeScript разрешает './x.js' в './x.ts'
+    for (String[] swap : new String[][] {{".js", ".ts"}, {".js", ".tsx"},
+            {".jsx", ".tsx"}, {".mjs", ".mts"}, {".cjs", ".cts"}}) {
+      if (name.endsWith(swap[0])) {
+        String stem = name.substring(0, name.length() - swap[0].length());
+        file = files.get(path.resolveSibling(stem + swap[1]));
+        if (file != null) {
+          return file;
+        }
+      }
+    }
+    return null;
+  }
+
+  private Optional<CompilerOptions> findCompilerOptions(Path directory) {
+    if (directory == null) {
+      return Optional.empty();
+    }
+    Optional<CompilerOptions> cached = compilerOptions.get(directory);
+    if (cached != null) {
+      return cached;
+    }
+    Optional<CompilerOptions> options = Optional.empty();
+    for (String name : List.of("tsconfig.json", "jsconfig.json")) {
+      Path config = directory.resolve(name);
+      if (Files.isRegularFile(config)) {
+        options = Optional.ofNullable(readCompilerOptions(config));
+        break;
+      }
+    }
+    if (options.isEmpty()) {
+      options = findCompilerOptions(directory.getParent());
+    }
+    compilerOptions.putIfAbsent(directory, options);
+    return options;
+  }
+
+  /**
+   * Read baseUrl and paths of a config, following extends.
+   */
+  private static CompilerOptions readCompilerOptions(Path config) {
+    Path baseUrl = null;
+    JsonNode paths = null;
+    Path pathsBase = null;
+    Path current = config;
+    for (int i = 0; i < MAX_EXTENDS && current != null; i++) {
+      JsonNode root;
+      try {
+        root = MAPPER.readTree(current.toFile());
+      } catch (IOException e) {
+        System.out.println("Cannot read " + current + ": " + e.getMessage());
+        break;
+      }
+      JsonNode options = root.path("compilerOptions");
+      Path directory = current.getParent();
+      if (baseUrl == null && options.hasNonNull("baseUrl")) {
+        baseUrl = directory.resolve(options.get("baseUrl").asText()).normalize();
+      }
+      if (paths == null && options.has("paths")) {
+        paths = options.get("paths");
+        pathsBase = directory;
+      }
+      String parent = root.path("extends").asText("");
+      current = parent.startsWith(".") || parent.startsWith("/")
+              ? directory.resolve(parent.endsWith(".json") ? parent : parent + ".json").normalize()
+              : null;
+    }
+    if (paths != null && baseUrl != null) {
+      // при заданном baseUrl пути в paths отсчитываются от него
+      pathsBase = baseUrl;
+    }
+    return baseUrl == null && paths == null
+            ? null
+            : new CompilerOptions(baseUrl, paths, pathsBase);
+  }
+
+  private Optional<JsonNode> readManifest(Path directory) {
+    return manifests.computeIfAbsent(directory, dir -> {
+      Path manifest = dir.resolve("package.json");
+      if (!Files.isRegularFile(manifest)) {
+        return Optional.empty();
+      }
+      try {
+        return Optional.of(MAPPER.readTree(manifest.toFile()));
+      } catch (IOException e) {
+        System.out.println("Cannot read " + manifest + ": " + e.getMessage());
+        return Optional.empty();
+      }
+    });
+  }
+
+  private static int indexOfAny(String value, char first, char second) {
+    int a = value.indexOf(first);
+    int b = value.indexOf(second);
+    return a < 0 ? b : b < 0 ? a : Math.min(a, b);
+  }
+}
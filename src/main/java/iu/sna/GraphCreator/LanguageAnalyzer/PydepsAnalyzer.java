@@ -1,8 +1,10 @@
 package iu.sna.GraphCreator.LanguageAnalyzer;
 
-import java.io.BufferedReader;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
 import java.io.IOException;
-import java.io.InputStreamReader;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.ArrayList;
@@ -16,36 +18,49 @@ public class PydepsAnalyzer implements LanguageAnalyzer {
   private static final Pattern DEPENDENCY_PATTERN = Pattern.compile("(\\w+)" +
           "\\s*->\\s*(\\w+)\\s*\\[.*?\\];");
 
+  private static final ObjectMapper MAPPER = new ObjectMapper();
+
+  /**
+   * Whether pydeps runs in the warm worker process.
+   */
+  private final boolean useWorker;
+
+  public PydepsAnalyzer() {
+    this(true);
+  }
+
+  /**
+   * Create an analyzer.
+   *
+   * @param useWorker whether to use the warm worker process when available
+   */
+  public PydepsAnalyzer(boolean useWorker) {
+    this.useWorker = useWorker;
+  }
+
   // TODO: что делать с venv?
   private String runTool(List<String> fileParam) throws IOException {
+    if (useWorker) {
+      ToolWorker worker = ToolWorker.get(
+              PATH_TO_VENV != null ? PATH_TO_VENV + "/bin/python" : "python3",
+              "pydeps-worker.py");
+      if (worker.isAvailable()) {
+        ObjectNode request = MAPPER.createObjectNode();
+        ArrayNode args = request.putArray("args");
+        fileParam.forEach(args::add);
+        args.add("--show-dot");
+        args.add("--noshow");
+        return worker.request(request).path("output").asText();
+      }
+    }
+
     List<String> command = new ArrayList<>();
     command.add(PATH_TO_VENV + "/bin/pydeps");
     command.addAll(fileParam);
 
     command.add("--show-dot");
     command.add("--noshow");
-    ProcessBuilder processBuilder = new ProcessBuilder(command);
-    processBuilder.redirectErrorStream(true);
-
-    Process process = processBuilder.start();
-
-    StringBuffer output = new StringBuffer();
-
-    try (BufferedReader reader =
-                 new BufferedReader(
-                         new InputStreamReader(process.getInputStream()))) {
-      String line;
-      while ((line = reader.readLine()) != null) {
-        output.append(line)
-                .append("\n");
-      }
-
-      int exitCode = process.waitFor();
-    } catch (InterruptedException e) {
-      throw new RuntimeException("Pydeps failed with error: " + e);
-    }
-
-    return output.toString();
+    return ExternalTool.run(command);
   }
 
   @Override
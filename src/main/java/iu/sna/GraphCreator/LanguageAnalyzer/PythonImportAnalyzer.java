@@ -0,0 +1,462 @@
+package iu.sna.GraphCreator.LanguageAnalyzer;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Resolves Python imports to the files of the project without running
+ * Python. Import statements are found by a tokenizer that skips strings
+ * and comments and joins continued lines, files are read in parallel.
+ *
+ * <p>Absolute imports are matched against the module names the files
+ * may have: every suffix of a file path, with {@code __init__.py}
+ * standing for its package, is a candidate name. A candidate counts if
+ * the directory above its name contains the importing file, as the
+ * directories on {@code sys.path} usually do. Dotted names with no such
+ * candidate fall back to all candidates, e.g. for tests next to a
+ * {@code src} layout. Relative imports are resolved from the directory
+ * of the importing file.
+ */
+public class PythonImportAnalyzer implements ImportExtractingAnalyzer {
+  private static final Pattern IMPORT_PATTERN = Pattern.compile(
+          "import\\s+(.+)", Pattern.UNICODE_CHARACTER_CLASS | Pattern.DOTALL);
+  private static final Pattern FROM_PATTERN = Pattern.compile(
+          "from\\s+(\\.*)\\s*([\\w.]*)\\s+import\\s+(.+)",
+          Pattern.UNICODE_CHARACTER_CLASS | Pattern.DOTALL);
+  private static final Pattern NAME_PATTERN = Pattern.compile(
+          "[\\w.]+", Pattern.UNICODE_CHARACTER_CLASS);
+
+  /**
+   * Number of reading threads.
+   */
+  private final int parallelism;
+
+  /**
+   * Import statement of a file.
+   *
+   * @param level  number of leading dots, 0 for an absolute import
+   * @param module imported module, empty for {@code from . import x}
+   * @param names  names after {@code from ... import}, empty for plain imports
+   */
+  record PythonImport(int level, String module, List<String> names) {
+  }
+
+  /**
+   * File that a module name may refer to.
+   *
+   * @param file input path of the file
+   * @param root directory above the module name
+   */
+  private record Candidate(String file, Path root) {
+  }
+
+  /**
+   * Create an analyzer reading on one thread per core.
+   */
+  public PythonImportAnalyzer() {
+    this(0);
+  }
+
+  /**
+   * Create an analyzer.
+   *
+   * @param parallelism number of reading threads, non-positive means one per core
+   */
+  public PythonImportAnalyzer(int parallelism) {
+    this.parallelism = parallelism > 0
+            ? parallelism
+            : Runtime.getRuntime().availableProcessors();
+  }
+
+  @Override
+  public List<Map.Entry<Path, Path>> analyzeDependencies(
+          List<String> fileString) throws IOException {
+    return analyzeDependencies(fileString, fileString);
+  }
+
+  @Override
+  public List<Map.Entry<Path, Path>> analyzeDependencies(
+          List<String> sources,
+          List<String> fileString) throws IOException {
+    Set<String> allFiles = new LinkedHashSet<>(fileString);
+    allFiles.addAll(sources);
+    Map<Path, String> byPath = new HashMap<>();
+    Map<String, List<Candidate>> modules = new HashMap<>();
+    indexFiles(allFiles, byPath, modules);
+
+    ForkJoinPool pool = new ForkJoinPool(parallelism);
+    try {
+      return pool.submit(() -> sources.parallelStream()
+                      .distinct()
+                      .flatMap(source -> resolveFile(source, readImports(source),
+                              byPath, modules).stream())
+                      .toList())
+              .get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IOException("Python import analysis interrupted", e);
+    } catch (ExecutionException e) {
+      throw new IOException("Python import analysis failed", e.getCause());
+    } finally {
+      pool.shutdownNow();
+    }
+  }
+
+  @Override
+  public String getLanguage() {
+    return "python";
+  }
+
+  @Override
+  public String getVersion() {
+    return "1";
+  }
+
+  @Override
+  public int getParallelism() {
+    return parallelism;
+  }
+
+  /**
+   * Extract the imports of a file, one line per import:
+   * the number of leading dots, the module and the imported names,
+   * separated by a vertical bar, names separated by commas.
+   */
+  @Override
+  public List<String> extractImports(String file) {
+    List<PythonImport> imports = readImports(file);
+    if (imports == null) {
+      return null;
+    }
+    List<String> lines = new ArrayList<>(imports.size());
+    for (PythonImport imp : imports) {
+      lines.add(imp.level() + "|" + imp.module() + "|" + String.join(",", imp.names()));
+    }
+    return lines;
+  }
+
+  @Override
+  public List<Map.Entry<Path, Path>> resolveImports(
+          List<String> sources,
+          Map<String, List<String>> imports) {
+    Map<Path, String> byPath = new HashMap<>();
+    Map<String, List<Candidate>> modules = new HashMap<>();
+    indexFiles(imports.keySet(), byPath, modules);
+
+    List<Map.Entry<Path, Path>> res = new ArrayList<>();
+    for (String source : new LinkedHashSet<>(sources)) {
+      List<String> lines = imports.get(source);
+      if (lines == null) {
+        continue;
+      }
+      List<PythonImport> parsed = new ArrayList<>(lines.size());
+      for (String line : lines) {
+        String[] parts = line.split("\\|", -1);
+        parsed.add(new PythonImport(Integer.parseInt(parts[0]), parts[1],
+                parts[2].isEmpty() ? List.of() : List.of(parts[2].split(","))));
+      }
+      res.addAll(resolveFile(source, parsed, byPath, modules));
+    }
+    return res;
+  }
+
+  private static void indexFiles(Collection<String> files,
+                                 Map<Path, String> byPath,
+                                 Map<String, List<Candidate>> modules) {
+    for (String file : files) {
+      Path path = normalize(file);
+      byPath.putIfAbsent(path, file);
+      indexModule(file, path, modules);
+    }
+  }
+
+  /**
+   * Read and parse the imports of a file.
+   *
+   * @return imports or null if the file cannot be read
+   */
+  private static List<PythonImport> readImports(String file) {
+    try {
+      return parseImports(new String(Files.readAllBytes(normalize(file)),
+              StandardCharsets.UTF_8));
+    } catch (IOException e) {
+      System.out.println("Cannot read " + file + ": " + e.getMessage());
+      return null;
+    }
+  }
+
+  private static Path normalize(String file) {
+    return Paths.get(file).toAbsolutePath().normalize();
+  }
+
+  /**
+   * Index every module name the file may be imported by.
+   */
+  private static void indexModule(String file, Path path,
+                                  Map<String, List<Candidate>> modules) {
+    String stem = moduleStem(path);
+    if (stem == null) {
+      return;
+    }
+    // a/b/__init__.py — это пакет a.b
+    Path directory = path.getParent();
+    String name = stem;
+    if ("__init__".equals(stem)) {
+      if (directory == null || directory.getFileName() == null) {
+        return;
+      }
+      name = directory.getFileName().toString();
+      directory = directory.getParent();
+    }
+    while (directory != null) {
+      modules.computeIfAbsent(name, k -> new ArrayList<>(1))
+              .add(new Candidate(file, directory));
+      if (directory.getFileName() == null) {
+        break;
+      }
+      name = directory.getFileName() + "." + name;
+      directory = directory.getParent();
+    }
+  }
+
+  private static String moduleStem(Path path) {
+    String fileName = path.getFileName().toString();
+    if (fileName.endsWith(".py")) {
+      return fileName.substring(0, fileName.length() - 3);
+    }
+    if (fileName.endsWith(".pyi")) {
+      return fileName.substring(0, fileName.length() - 4);
+    }
+    return null;
+  }
+
+  private static List<Map.Entry<Path, Path>> resolveFile(
+          String source,
+          List<PythonImport> imports,
+          Map<Path, String> byPath,
+          Map<String, List<Candidate>> modules) {
+    if (imports == null) {
+      return List.of();
+    }
+    Path path = normalize(source);
+    Set<String> targets = new LinkedHashSet<>();
+    for (PythonImport imp : imports) {
+      if (imp.level() > 0) {
+        resolveRelative(path, imp, byPath, targets);
+      } else if (imp.names().isEmpty()) {
+        targets.addAll(resolveAbsolute(path, imp.module(), modules));
+      } else {
+        // from a.b import c: c может быть подмодулем, иначе это имя из a.b
+        boolean submodules = false;
+        for (String name : imp.names()) {
+          List<String> submodule = resolveAbsolute(path,
+                  imp.module() + "." + name, modules);
+          targets.addAll(submodule);
+          submodules |= !submodule.isEmpty();
+        }
+        if (!submodules) {
+          targets.addAll(resolveAbsolute(path, imp.module(), modules));
+        }
+      }
+    }
+    targets.remove(source);
+
+    List<Map.Entry<Path, Path>> res = new ArrayList<>(targets.size());
+    Path from = Paths.get(source);
+    for (String target : targets) {
+      res.add(Map.entry(from, Paths.get(target)));
+    }
+    return res;
+  }
+
+  private static List<String> resolveAbsolute(Path importer, String module,
+                                              Map<String, List<Candidate>> modules) {
+    List<Candidate> candidates = modules.get(module);
+    if (candidates == null) {
+      return List.of();
+    }
+    List<String> onPath = new ArrayList<>();
+    for (Candidate candidate : candidates) {
+      if (importer.startsWith(candidate.root())) {
+        onPath.add(candidate.file());
+      }
+    }
+    if (!onPath.isEmpty() || module.indexOf('.') < 0) {
+      // без точки имя слишком легко совпадает с чужим модулем, например os.py
+      return onPath;
+    }
+    List<String> all = new ArrayList<>(candidates.size());
+    candidates.forEach(candidate -> all.add(candidate.file()));
+    return all;
+  }
+
+  private static void resolveRelative(Path importer, PythonImport imp,
+                                      Map<Path, String> byPath,
+                                      Set<String> targets) {
+    Path base = importer.getParent();
+    for (int i = 1; i < imp.level() && base != null; i++) {
+      base = base.getParent();
+    }
+    if (base == null) {
+      return;
+    }
+    Path module = base;
+    if (!imp.module().isEmpty()) {
+      for (String part : imp.module().split("\\.")) {
+        module = module.resolve(part);
+      }
+    }
+    boolean submodules = false;
+    for (String name : imp.names()) {
+      String submodule = findModule(module.resolve(name), byPath);
+      if (submodule != null) {
+        targets.add(submodule);
+        submodules = true;
+      }
+    }
+    if (!submodules) {
+      String target = imp.module().isEmpty()
+              ? byPath.get(module.resolve("__init__.py"))
+              : findModule(module, byPath);
+      if (target != null) {
+        targets.add(target);
+      }
+    }
+  }
+
+  /**
+   * Find the file of a module path: a module file or a package.
+   */
+  private static String findModule(Path module, Map<Path, String> byPath) {
+    String fileName = module.getFileName().toString();
+    for (String candidate : new String[] {fileName + ".py", fileName + ".pyi"}) {
+      String file = byPath.get(module.resolveSibling(candidate));
+      if (file != null) {
+        return file;
+      }
+    }
+    String file = byPath.get(module.resolve("__init__.py"));
+    return file != null ? file : byPath.get(module.resolve("__init__.pyi"));
+  }
+
+  /**
+   * Find the import statements of a Python source.
+   * Statements are split into logical lines: strings and comments are
+   * dropped, lines inside brackets or ending with a backslash are joined
+   * and semicolons separate statements.
+   *
+   * @param content source code
+   * @return imports in the order of the source
+   */
+  static List<PythonImport> parseImports(String content) {
+    List<PythonImport> imports = new ArrayList<>();
+    StringBuilder statement = new StringBuilder();
+    int depth = 0;
+    int length = content.length();
+    for (int i = 0; i < length; i++) {
+      char c = content.charAt(i);
+      if (c == '#') {
+        while (i + 1 < length && content.charAt(i + 1) != '\n') {
+          i++;
+        }
+      } else if (c == '"' || c == '\'') {
+        i = skipString(content, i);
+        statement.append("\"\"");
+      } else if (c == '\\' && i + 1 < length
+              && (content.charAt(i + 1) == '\n' || content.charAt(i + 1) == '\r')) {
+        // продолжение строки
+        i++;
+        if (content.charAt(i) == '\r' && i + 1 < length && content.charAt(i + 1) == '\n') {
+          i++;
+        }
+        statement.append(' ');
+      } else if ((c == '\n' || c == '\r') && depth == 0 || c == ';' && depth == 0) {
+        addImport(statement, imports);
+        statement.setLength(0);
+      } else {
+        if (c == '(' || c == '[' || c == '{') {
+          depth++;
+        } else if ((c == ')' || c == ']' || c == '}') && depth > 0) {
+          depth--;
+        }
+        statement.append(c == '\n' || c == '\r' ? ' ' : c);
+      }
+    }
+    addImport(statement, imports);
+    return imports;
+  }
+
+  /**
+   * Skip a string literal with any prefix and quotes.
+   *
+   * @return index of the last character of the literal
+   */
+  private static int skipString(String content, int start) {
+    char quote = content.charAt(start);
+    boolean triple = content.startsWith(String.valueOf(quote).repeat(3), start);
+    int i = start + (triple ? 3 : 1);
+    while (i < content.length()) {
+      char c = content.charAt(i);
+      if (c == '\\') {
+        i += 2;
+        continue;
+      }
+      if (c == quote && (!triple
+              || content.startsWith(String.valueOf(quote).repeat(3), i))) {
+        return triple ? i + 2 : i;
+      }
+      if (!triple && c == '\n') {
+        return i - 1;
+      }
+      i++;
+    }
+    return content.length() - 1;
+  }
+
+  private static void addImport(CharSequence statement,
+                                List<PythonImport> imports) {
+    String line = statement.toString().strip();
+    if (line.startsWith("import")) {
+      Matcher matcher = IMPORT_PATTERN.matcher(line);
+      if (matcher.matches()) {
+        for (String name : matcher.group(1).split(",")) {
+          Matcher module = NAME_PATTERN.matcher(name);
+          if (module.find()) {
+            imports.add(new PythonImport(0, module.group(), List.of()));
+          }
+        }
+      }
+    } else if (line.startsWith("from")) {
+      Matcher matcher = FROM_PATTERN.matcher(line);
+      if (matcher.matches()) {
+        List<String> names = new ArrayList<>();
+        for (String name : matcher.group(3).replace("(", "").replace(")", "").split(",")) {
+          Matcher imported = NAME_PATTERN.matcher(name);
+          if (imported.find()) {
+            names.add(imported.group());
+          }
+        }
+        int level = matcher.group(1).length();
+        String module = matcher.group(2);
+        if (level > 0 || !module.isEmpty()) {
+          imports.add(new PythonImport(level, module, names));
+        }
+      }
+    }
+  }
+}
@@ -0,0 +1,302 @@
+package iu.sna.GraphCreator.LanguageAnalyzer;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.InterruptedIOException;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Long-lived helper process of a dependency tool.
+ * The worker script is started once per JVM and receives requests
+ * as JSON lines on stdin, every request carries an id and the response
+ * line with the same id completes it, so concurrent requests share
+ * one process. A crashed worker is restarted on the next request.
+ *
+ * <p>Protocol: the worker first prints {@code {"ready":true}} or
+ * {@code {"ready":false,"error":"..."}}, then answers every request
+ * {@code {"id":1,...}} with {@code {"id":1,"ok":true,...}} or
+ * {@code {"id":1,"ok":false,"error":"..."}}.
+ */
+public final class ToolWorker {
+  private static final ObjectMapper MAPPER = new ObjectMapper();
+
+  /**
+   * How long a starting worker may take to report readiness.
+   */
+  private static final long STARTUP_TIMEOUT_SECONDS = 30;
+
+  /**
+   * Workers by name, one per tool for the lifetime of the JVM.
+   */
+  private static final Map<String, ToolWorker> WORKERS =
+          new ConcurrentHashMap<>();
+
+  /**
+   * Whether the hook stopping all workers on JVM exit is registered.
+   */
+  private static boolean shutdownHookRegistered = false;
+
+  private final String name;
+  private final List<String> command;
+  private final AtomicLong nextId = new AtomicLong();
+
+  private volatile Process process;
+  private BufferedWriter input;
+
+  /**
+   * Set when the worker failed to start, it is not retried afterwards.
+   */
+  private volatile boolean unavailable = false;
+
+  /**
+   * Requests waiting for the running process, a restarted process
+   * gets a new map so its requests are not failed by the old reader.
+   */
+  private Map<Long, CompletableFuture<JsonNode>> pending;
+
+  private ToolWorker(String name, List<String> command) {
+    this.name = name;
+    this.command = command;
+  }
+
+  /**
+   * Get the worker of a tool, the worker script is taken from the
+   * classpath resource {@code workers/<script>} and run by the interpreter.
+   *
+   * @param interpreter interpreter command, e.g. node or python3
+   * @param script      name of the worker script resource
+   * @return the worker, started on the first request
+   * @throws IOException if the script cannot be extracted
+   */
+  public static ToolWorker get(String interpreter, String script)
+          throws IOException {
+    String key = interpreter + " " + script;
+    ToolWorker worker = WORKERS.get(key);
+    if (worker == null) {
+      List<String> workerCommand = new ArrayList<>();
+      workerCommand.add(interpreter);
+      workerCommand.add(extractScript(script).toString());
+      worker = WORKERS.computeIfAbsent(key,
+              k -> new ToolWorker(script, workerCommand));
+    }
+    return worker;
+  }
+
+  /**
+   * Check whether the worker is running or can be started.
+   * A worker that failed to start once is not retried.
+   *
+   * @return true if requests can be sent
+   * @throws InterruptedIOException if interrupted while starting
+   */
+  public synchronized boolean isAvailable() throws InterruptedIOException {
+    if (unavailable) {
+      return false;
+    }
+    if (process != null && process.isAlive()) {
+      return true;
+    }
+    try {
+      start();
+      return true;
+    } catch (InterruptedIOException e) {
+      throw e;
+    } catch (IOException e) {
+      System.out.println(e.getMessage() + ", falling back to a process per run");
+      unavailable = true;
+      return false;
+    }
+  }
+
+  /**
+   * Send a request and wait for its response.
+   * An interrupted caller abandons the request, the worker is then
+   * stopped so it does not hold up later requests, and the next request
+   * starts a new one. Other requests to the stopped worker fail.
+   *
+   * @param request request fields, the id is added here
+   * @return the response
+   * @throws IOException if the worker cannot be started, crashes
+   *                     or reports an error
+   */
+  public JsonNode request(ObjectNode request) throws IOException {
+    long id = nextId.incrementAndGet();
+    request.put("id", id);
+    CompletableFuture<JsonNode> response = new CompletableFuture<>();
+    Map<Long, CompletableFuture<JsonNode>> waiting = null;
+    Process owner = null;
+    try {
+      synchronized (this) {
+        if (process == null || !process.isAlive()) {
+          start();
+        }
+        owner = process;
+        waiting = pending;
+        waiting.put(id, response);
+        input.write(MAPPER.writeValueAsString(request));
+        input.newLine();
+        input.flush();
+      }
+
+      JsonNode result = null;
+      while (result == null) {
+        try {
+          result = response.get(1, TimeUnit.SECONDS);
+        } catch (TimeoutException e) {
+          // ответа не будет, если процесс умер до чтения запроса
+          if (!owner.isAlive() && !response.isDone()) {
+            throw new IOException(name + " worker exited");
+          }
+        }
+      }
+      if (!result.path("ok").asBoolean()) {
+        throw new IOException(name + " failed: "
+                + result.path("error").asText());
+      }
+      return result;
+    } catch (InterruptedException e) {
+      if (owner != null && !response.isDone()) {
+        stop(owner);
+      }
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException("Interrupted while waiting for " + name);
+    } catch (ExecutionException e) {
+      throw new IOException(name + " failed", e.getCause());
+    } finally {
+      if (waiting != null) {
+        waiting.remove(id);
+      }
+    }
+  }
+
+  private void start() throws IOException {
+    ProcessBuilder processBuilder = new ProcessBuilder(command);
+    processBuilder.redirectError(ProcessBuilder.Redirect.DISCARD);
+    Process started = processBuilder.start();
+    BufferedReader output = new BufferedReader(new InputStreamReader(
+            started.getInputStream(), StandardCharsets.UTF_8));
+
+    // ждём первую строку о готовности, не блокируясь навсегда
+    CompletableFuture<String> ready = CompletableFuture.supplyAsync(() -> {
+      try {
+        return output.readLine();
+      } catch (IOException e) {
+        return null;
+      }
+    });
+    String readyLine;
+    try {
+      readyLine = ready.get(STARTUP_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+    } catch (InterruptedException e) {
+      started.destroyForcibly();
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException("Interrupted while starting " + name);
+    } catch (ExecutionException | TimeoutException e) {
+      readyLine = null;
+    }
+    JsonNode status = readyLine != null ? MAPPER.readTree(readyLine) : null;
+    if (status == null || !status.path("ready").asBoolean()) {
+      started.destroyForcibly();
+      throw new IOException(name + " is not available"
+              + (status != null ? ": " + status.path("error").asText() : ""));
+    }
+
+    Map<Long, CompletableFuture<JsonNode>> requests = new ConcurrentHashMap<>();
+    process = started;
+    pending = requests;
+    input = new BufferedWriter(new OutputStreamWriter(
+            started.getOutputStream(), StandardCharsets.UTF_8));
+    Thread.ofPlatform().daemon().name(name + "-reader")
+            .start(() -> readResponses(started, output, requests));
+    registerShutdownHook();
+  }
+
+  /**
+   * Stop a worker process, the next request starts a new one.
+   *
+   * @param owner process to stop
+   */
+  private void stop(Process owner) {
+    synchronized (this) {
+      if (process == owner) {
+        process = null;
+      }
+    }
+    owner.destroyForcibly();
+  }
+
+  private void readResponses(Process owner, BufferedReader output,
+                             Map<Long, CompletableFuture<JsonNode>> requests) {
+    try (output) {
+      String line;
+      while ((line = output.readLine()) != null) {
+        JsonNode response;
+        try {
+          response = MAPPER.readTree(line);
+        } catch (JsonProcessingException e) {
+          // посторонний вывод инструмента, не ответ
+          continue;
+        }
+        CompletableFuture<JsonNode> waiting =
+                requests.get(response.path("id").asLong());
+        if (waiting != null) {
+          waiting.complete(response);
+        }
+      }
+    } catch (IOException e) {
+      // процесс завершился, ниже отменяем ожидающие запросы
+    }
+    // без чтения вывода живой процесс заблокируется, завершаем его
+    stop(owner);
+    IOException crashed = new IOException(name + " worker exited");
+    requests.values().forEach(waiting -> waiting.completeExceptionally(crashed));
+  }
+
+  private static synchronized void registerShutdownHook() {
+    if (shutdownHookRegistered) {
+      return;
+    }
+    shutdownHookRegistered = true;
+    Runtime.getRuntime().addShutdownHook(new Thread(() ->
+            WORKERS.values().forEach(worker -> {
+              Process running = worker.process;
+              if (running != null) {
+                running.destroy();
+              }
+            })));
+  }
+
+  private static Path extractScript(String script) throws IOException {
+    try (InputStream resource = ToolWorker.class.getResourceAsStream(
+            "/workers/" + script)) {
+      if (resource == null) {
+        throw new IOException("Worker script " + script + " not found");
+      }
+      Path file = Files.createTempFile("sna-worker-", "-" + script);
+      file.toFile().deleteOnExit();
+      Files.copy(resource, file, StandardCopyOption.REPLACE_EXISTING);
+      return file;
+    }
+  }
+}
@@ -0,0 +1,210 @@
+package iu.sna.GraphCreator;
+
+import lombok.Getter;
+import org.eclipse.jgit.lib.ObjectId;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Limits the co-change pairs taken from commits touching many files.
+ * Reformatting, license header or dependency bump commits change
+ * thousands of unrelated files together, their pairs are mostly noise.
+ * Commits from an ignore list are skipped entirely, commits above
+ * the file threshold contribute a deterministic sample of their pairs.
+ * Sampled pairs are down-weighted by the sampled fraction of all pairs,
+ * so a mass commit weighs less than a commit with the sampled number of pairs.
+ */
+public final class MassCommitPolicy {
+  /**
+   * Commits skipped entirely.
+   */
+  private final Set<ObjectId> ignoredRevisions;
+
+  /**
+   * Commits with more files than this are sampled.
+   */
+  private final int fileThreshold;
+
+  /**
+   * Number of pairs taken from a sampled commit.
+   */
+  private final int maxPairs;
+
+  /**
+   * Number of commits skipped because of the ignore list.
+   */
+  @Getter
+  private int ignoredCommits;
+
+  /**
+   * Number of commits whose pairs were sampled.
+   */
+  @Getter
+  private int sampledCommits;
+
+  /**
+   * Number of pairs not visited.
+   */
+  @Getter
+  private long skippedPairs;
+
+  /**
+   * Receives pairs of file indices.
+   */
+  @FunctionalInterface
+  public interface PairVisitor {
+    /**
+     * Visit a pair.
+     *
+     * @param first  index of the first file
+     * @param second index of the second file, greater than first
+     * @param weight weight of the co-change, 1 unless the commit is sampled
+     */
+    void visit(int first, int second, double weight);
+  }
+
+  /**
+   * Create a policy.
+   *
+   * @param ignored   commits to skip entirely
+   * @param threshold commits with more files than this are sampled
+   * @param pairs     number of pairs taken from a sampled commit
+   */
+  public MassCommitPolicy(final Set<ObjectId> ignored, final int threshold,
+                          final int pairs) {
+    this.ignoredRevisions = Set.copyOf(ignored);
+    this.fileThreshold = threshold;
+    this.maxPairs = pairs;
+  }
+
+  /**
+   * Read an ignore list in the format of {@code .git-blame-ignore-revs}:
+   * one full commit id per line, empty lines and comments after
+   * {@code #} are skipped.
+   *
+   * @param file ignore list
+   * @return ids of listed commits, empty if the file does not exist
+   * @throws IOException if the file cannot be read
+   */
+  public static Set<ObjectId> readIgnoreRevs(final Path file)
+          throws IOException {
+    Set<ObjectId> revisions = new HashSet<>();
+    if (!Files.isRegularFile(file)) {
+      return revisions;
+    }
+    for (String line : Files.readAllLines(file)) {
+      int comment = line.indexOf('#');
+      String id = (comment >= 0 ? line.substring(0, comment) : line).trim();
+      if (ObjectId.isId(id)) {
+        revisions.add(ObjectId.fromString(id));
+      }
+    }
+    return revisions;
+  }
+
+  /**
+   * Check whether a commit is skipped entirely,
+   * counts the commit as ignored if it is.
+   *
+   * @param commitId commit id
+   * @return true if the commit is in the ignore list
+   */
+  public boolean ignore(final ObjectId commitId) {
+    if (ignoredRevisions.contains(commitId)) {
+      ignoredCommits++;
+      return true;
+    }
+    return false;
+  }
+
+  /**
+   * Visit the pairs of files of a commit that count as co-changes.
+   * Pairs of a commit above the file threshold are sampled,
+   * the sample depends only on the commit id. Each sampled pair has
+   * the weight {@code maxPairs / totalPairs}, so all sampled pairs of
+   * a commit together weigh less than {@code maxPairs} regular ones.
+   *
+   * @param commitId  commit id, seeds the sample
+   * @param fileCount number of files changed by the commit
+   * @param visitor   receives the pairs
+   */
+  public void forEachPair(final ObjectId commitId, final int fileCount,
+                          final PairVisitor visitor) {
+    long totalPairs = (long) fileCount * (fileCount - 1) / 2;
+    if (fileCount <= fileThreshold || totalPairs <= maxPairs) {
+      for (int i = 0; i < fileCount; i++) {
+        for (int j = i + 1; j < fileCount; j++) {
+          visitor.visit(i, j, 1);
+        }
+      }
+      return;
+    }
+
+    sampledCommits++;
+    skippedPairs += totalPairs - maxPairs;
+    // выборка Флойда: maxPairs различных номеров пар без перебора всех пар
+    double weight = (double) maxPairs / totalPairs;
+    Random random = new Random(commitId.hashCode());
+    Set<Long> chosen = new HashSet<>(maxPairs * 2);
+    for (long bound = totalPairs - maxPairs; bound < totalPairs; bound++) {
+      long candidate = (long) (random.nextDouble() * (bound + 1));
+      chosen.add(chosen.contains(candidate) ? bound : candidate);
+    }
+    for (long pair : chosen) {
+      int first = firstOfPair(pair, fileCount);
+      int second = (int) (pair - pairsBefore(first, fileCount)) + first + 1;
+      visitor.visit(first, second, weight);
+    }
+  }
+
+  /**
+   * Number of pairs (i, j), i &lt; j, whose first index is below row.
+   */
+  private static long pairsBefore(final int row, final int fileCount) {
+    return (long) row * (2L * fileCount - row - 1) / 2;
+  }
+
+  /**
+   * First index of the pair with the given number in row-major order.
+   */
+  private static int firstOfPair(final long pair, final int fileCount) {
+    double n = fileCount;
+    int row = (int) Math.floor(
+            ((2 * n - 1) - Math.sqrt((2 * n - 1) * (2 * n - 1) - 8.0 * pair)) / 2);
+    // поправка на погрешность sqrt
+    while (row > 0 && pairsBefore(row, fileCount) > pair) {
+      row--;
+    }
+    while (pairsBefore(row + 1, fileCount) <= pair) {
+      row++;
+    }
+    return row;
+  }
+
+  /**
+   * Describe the policy for snapshot settings.
+   *
+   * @return policy description
+   */
+  public String describe() {
+    return "massCommitThreshold=" + fileThreshold
+            + ";massCommitPairs=" + maxPairs
+            + ";ignoredRevisions=" + ignoredRevisions.hashCode();
+  }
+
+  /**
+   * Summarize what the policy has skipped so far.
+   *
+   * @return human readable report
+   */
+  public String report() {
+    return "Mass commit policy: " + ignoredCommits + " ignored commits, "
+            + sampledCommits + " sampled commits, "
+            + skippedPairs + " skipped pairs";
+  }
+}
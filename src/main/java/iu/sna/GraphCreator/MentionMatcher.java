@@ -0,0 +1,173 @@
+package iu.sna.GraphCreator;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+
+/**
+ * Aho-Corasick automaton over a fixed set of file name stems.
+ * Scans a text once and reports every stem that occurs in it,
+ * instead of calling {@link String#contains} once per stem.
+ */
+public final class MentionMatcher {
+  /**
+   * Goto transitions of every trie node.
+   */
+  private final List<Map<Character, Integer>> transitions = new ArrayList<>();
+
+  /**
+   * Failure link of every trie node.
+   */
+  private final List<Integer> failure = new ArrayList<>();
+
+  /**
+   * Index of the pattern ending in the node or -1.
+   */
+  private final List<Integer> terminal = new ArrayList<>();
+
+  /**
+   * Nearest node on the failure chain that ends a pattern or -1.
+   */
+  private final List<Integer> outputLink = new ArrayList<>();
+
+  /**
+   * Length of every pattern, used for boundary checks.
+   */
+  private final int[] patternLengths;
+
+  /**
+   * Accept a match only if it is not surrounded by identifier characters.
+   */
+  private final boolean identifierBoundary;
+
+  /**
+   * Build the automaton.
+   * Empty patterns are ignored, duplicated patterns are reported
+   * under the index of their first occurrence.
+   *
+   * @param patterns           stems to look for
+   * @param identifierBoundary match whole identifiers only
+   */
+  public MentionMatcher(final List<String> patterns,
+                        final boolean identifierBoundary) {
+    this.identifierBoundary = identifierBoundary;
+    this.patternLengths = new int[patterns.size()];
+    newNode();
+    for (int i = 0; i < patterns.size(); i++) {
+      String pattern = patterns.get(i);
+      patternLengths[i] = pattern.length();
+      if (pattern.isEmpty()) {
+        continue;
+      }
+      int node = 0;
+      for (int k = 0; k < pattern.length(); k++) {
+        char c = pattern.charAt(k);
+        Integer next = transitions.get(node).get(c);
+        if (next == null) {
+          next = newNode();
+          transitions.get(node).put(c, next);
+        }
+        node = next;
+      }
+      if (terminal.get(node) == -1) {
+        terminal.set(node, i);
+      }
+    }
+    buildFailureLinks();
+  }
+
+  private int newNode() {
+    transitions.add(new HashMap<>());
+    failure.add(0);
+    terminal.add(-1);
+    outputLink.add(-1);
+    return transitions.size() - 1;
+  }
+
+  /**
+   * Breadth-first computation of failure and output links.
+   */
+  private void buildFailureLinks() {
+    Queue<Integer> queue = new ArrayDeque<>(transitions.get(0).values());
+    while (!queue.isEmpty()) {
+      int node = queue.poll();
+      for (Map.Entry<Character, Integer> entry : transitions.get(node)
+              .entrySet()) {
+        int child = entry.getValue();
+        int link = 0;
+        if (node != 0) {
+          int fallback = failure.get(node);
+          Integer target = transitions.get(fallback).get(entry.getKey());
+          while (target == null && fallback != 0) {
+            fallback = failure.get(fallback);
+            target = transitions.get(fallback).get(entry.getKey());
+          }
+          link = target == null ? 0 : target;
+        }
+        failure.set(child, link);
+        outputLink.set(child, terminal.get(link) != -1
+                ? link
+                : outputLink.get(link));
+        queue.add(child);
+      }
+    }
+  }
+
+  /**
+   * Scan a text once and collect all patterns found in it.
+   *
+   * @param text text to scan
+   * @return indices of the matched patterns
+   */
+  public BitSet findAll(final CharSequence text) {
+    BitSet found = new BitSet(patternLengths.length);
+    int node = 0;
+    for (int pos = 0; pos < text.length(); pos++) {
+      char c = text.charAt(pos);
+      Integer next = transitions.get(node).get(c);
+      while (next == null && node != 0) {
+        node = failure.get(node);
+        next = transitions.get(node).get(c);
+      }
+      node = next == null ? 0 : next;
+
+      int match = terminal.get(node) != -1 ? node : outputLink.get(node);
+      while (match != -1) {
+        int pattern = terminal.get(match);
+        if (!found.get(pattern) && isAcceptable(text, pos, pattern)) {
+          found.set(pattern);
+        }
+        match = outputLink.get(match);
+      }
+    }
+    return found;
+  }
+
+  /**
+   * Check identifier boundaries around a match if they are required.
+   *
+   * @param text    scanned text
+   * @param end     index of the last matched character
+   * @param pattern index of the matched pattern
+   * @return true if the match should be reported
+   */
+  private boolean isAcceptable(final CharSequence text, final int end,
+                               final int pattern) {
+    if (!identifierBoundary) {
+      return true;
+    }
+    int start = end - patternLengths[pattern] + 1;
+    boolean before = start == 0 || !isIdentifierPart(text.charAt(start - 1));
+    boolean after = end + 1 == text.length()
+            || !isIdentifierPart(text.charAt(end + 1));
+    return before && after;
+  }
+
+  private static boolean isIdentifierPart(final char c) {
+    return Character.isLetterOrDigit(c) || c == '_' || c == '$';
+  }
+}
@@ -0,0 +1,176 @@
+package iu.sna.GraphCreator;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Scans file contents for mentions in parallel.
+ * Every worker decodes files into its own reusable buffers, so memory
+ * is bounded by the number of workers and not by the repository size.
+ */
+public final class MentionScanner {
+  /**
+   * Files of at least this size are memory-mapped instead of read.
+   */
+  private static final long MAPPING_THRESHOLD = 1 << 20;
+
+  /**
+   * Automaton shared by all workers, it is read-only after construction.
+   */
+  private final MentionMatcher matcher;
+
+  /**
+   * Number of worker threads.
+   */
+  private final int parallelism;
+
+  /**
+   * Buffers reused by the files scanned on the same worker.
+   */
+  private final ThreadLocal<WorkerBuffers> buffers =
+          ThreadLocal.withInitial(WorkerBuffers::new);
+
+  /**
+   * Pattern found in the content of a file.
+   *
+   * @param pattern        index of the matched pattern
+   * @param mentioningFile file containing the pattern
+   */
+  public record Mention(int pattern, Path mentioningFile) {
+  }
+
+  /**
+   * Create a scanner.
+   *
+   * @param matcher     automaton with the patterns to look for
+   * @param parallelism number of workers, non-positive means one per core
+   */
+  public MentionScanner(final MentionMatcher matcher, final int parallelism) {
+    this.matcher = matcher;
+    this.parallelism = parallelism > 0
+            ? parallelism
+            : Runtime.getRuntime().availableProcessors();
+  }
+
+  /**
+   * Scan every file once and collect the patterns found in it.
+   * Binary, non UTF-8 and unreadable files are skipped.
+   *
+   * @param files files to scan
+   * @return mentions found in all files
+   * @throws IOException if the scan is interrupted or a worker fails
+   */
+  public Collection<Mention> scan(final Collection<Path> files)
+          throws IOException {
+    ConcurrentLinkedQueue<Mention> mentions = new ConcurrentLinkedQueue<>();
+    ForkJoinPool pool = new ForkJoinPool(parallelism);
+    try {
+      pool.submit(() -> files.parallelStream()
+                      .forEach(file -> scanFile(file, mentions)))
+              .get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IOException("Mention scan interrupted", e);
+    } catch (ExecutionException e) {
+      throw new IOException("Mention scan failed", e.getCause());
+    } finally {
+      pool.shutdown();
+    }
+    return mentions;
+  }
+
+  private void scanFile(final Path file,
+                        final Collection<Mention> mentions) {
+    CharBuffer content;
+    try {
+      content = buffers.get().decode(file);
+    } catch (IOException e) {
+      // Skip binary or unreadable files
+      return;
+    }
+    if (content == null) {
+      return;
+    }
+    BitSet found = matcher.findAll(content);
+    buffers.get().release();
+    for (int i = found.nextSetBit(0); i >= 0; i = found.nextSetBit(i + 1)) {
+      mentions.add(new Mention(i, file));
+    }
+  }
+
+  /**
+   * Read and decode buffers of one worker.
+   */
+  private static final class WorkerBuffers {
+    private final CharsetDecoder decoder = StandardCharsets.UTF_8.newDecoder()
+            .onMalformedInput(CodingErrorAction.REPORT)
+            .onUnmappableCharacter(CodingErrorAction.REPORT);
+    private ByteBuffer bytes = ByteBuffer.allocate(64 * 1024);
+    private CharBuffer chars = CharBuffer.allocate(64 * 1024);
+
+    /**
+     * Drop buffers grown for an unusually large file.
+     */
+    void release() {
+      if (chars.capacity() > MAPPING_THRESHOLD) {
+        chars = CharBuffer.allocate(64 * 1024);
+      }
+    }
+
+    /**
+     * Decode a file as UTF-8, like {@code Files.readString}.
+     *
+     * @param file file to read
+     * @return decoded content or null if the file is not valid UTF-8
+     * @throws IOException if the file cannot be read
+     */
+    CharBuffer decode(final Path file) throws IOException {
+      try (FileChannel channel = FileChannel.open(file,
+              StandardOpenOption.READ)) {
+        long size = channel.size();
+        if (size > Integer.MAX_VALUE) {
+          return null;
+        }
+        ByteBuffer input;
+        if (size >= MAPPING_THRESHOLD) {
+          input = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+        } else {
+          if (bytes.capacity() < size) {
+            bytes = ByteBuffer.allocate((int) size);
+          }
+          bytes.clear().limit((int) size);
+          while (bytes.hasRemaining() && channel.read(bytes) >= 0) {
+            // keep reading until the buffer is full or the file ends
+          }
+          input = bytes.flip();
+        }
+
+        // UTF-8 never produces more chars than bytes
+        if (chars.capacity() < input.remaining()) {
+          chars = CharBuffer.allocate(input.remaining());
+        }
+        chars.clear();
+        decoder.reset();
+        CoderResult result = decoder.decode(input, chars, true);
+        if (result.isError()) {
+          return null;
+        }
+        decoder.flush(chars);
+        return chars.flip();
+      }
+    }
+  }
+}
@@ -0,0 +1,81 @@
+package iu.sna.GraphCreator;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * Vectorized loop of {@link CompoundWeightKernel}.
+ * Loaded only when the {@code jdk.incubator.vector} module is present.
+ * Lanes evaluate the same operations in the same order as the scalar
+ * path, so the results are identical.
+ */
+final class VectorCompoundWeightKernel {
+  private static final VectorSpecies<Double> SPECIES =
+          DoubleVector.SPECIES_PREFERRED;
+
+  private VectorCompoundWeightKernel() {
+  }
+
+  /**
+   * Compute the weights of all full vectors of edges.
+   *
+   * @param columns          edge counters
+   * @param weights          receives the weight of every edge
+   * @param commitImportance multiplier of the co-change weight
+   * @param languageCoef     multiplier of language dependency edges
+   * @param languageConst    addend of language dependency edges
+   * @return number of edges computed, the tail is left to the scalar loop
+   */
+  static int compute(final CompoundWeightKernel.EdgeColumns columns,
+                     final double[] weights, final double commitImportance,
+                     final double languageCoef, final double languageConst) {
+    int bound = SPECIES.loopBound(columns.size());
+    DoubleVector zero = DoubleVector.zero(SPECIES);
+    for (int i = 0; i < bound; i += SPECIES.length()) {
+      DoubleVector commonCommits =
+              DoubleVector.fromArray(SPECIES, columns.commonCommits(), i);
+      DoubleVector commonLines =
+              DoubleVector.fromArray(SPECIES, columns.commonLines(), i);
+      DoubleVector fromCommits =
+              DoubleVector.fromArray(SPECIES, columns.fromCommits(), i);
+      DoubleVector toCommits =
+              DoubleVector.fromArray(SPECIES, columns.toCommits(), i);
+      DoubleVector fromLines =
+              DoubleVector.fromArray(SPECIES, columns.fromLines(), i);
+      DoubleVector toLines =
+              DoubleVector.fromArray(SPECIES, columns.toLines(), i);
+      DoubleVector locationCoef =
+              DoubleVector.fromArray(SPECIES, columns.locationCoef(), i);
+
+      DoubleVector avgCommonChangedLines = commonLines.div(commonCommits);
+      DoubleVector totalAandBcommits =
+              fromCommits.add(toCommits).sub(commonCommits);
+      DoubleVector avgLineChangesInBothFiles =
+              fromLines.div(fromCommits).add(toLines.div(toCommits));
+      DoubleVector denominator =
+              totalAandBcommits.mul(avgLineChangesInBothFiles);
+      DoubleVector result = commonCommits.mul(avgCommonChangedLines)
+              .div(denominator)
+              .mul(locationCoef)
+              .mul(commitImportance);
+
+      // те же условия обнуления, что и в скалярном пути
+      VectorMask<Double> isZero = commonCommits.eq(zero)
+              .or(totalAandBcommits.eq(zero))
+              .or(avgLineChangesInBothFiles.eq(zero))
+              .or(denominator.eq(zero))
+              .or(result.test(VectorOperators.IS_NAN))
+              .or(result.test(VectorOperators.IS_INFINITE));
+      result = result.blend(zero, isZero);
+
+      VectorMask<Double> language = VectorMask.fromArray(SPECIES,
+              columns.languageDependency(), i);
+      result = result.blend(
+              result.mul(languageCoef).add(languageConst), language);
+      result.intoArray(weights, i);
+    }
+    return bound;
+  }
+}
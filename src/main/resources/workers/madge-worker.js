@@ -0,0 +1,54 @@
+// Long-lived madge worker, see ToolWorker for the protocol.
+// Request:  {"id": 1, "files": ["/abs/a.js"], "baseDir": "/abs"}
+// Response: {"id": 1, "ok": true, "dependencies": [["a.js", "b.js"]]}
+'use strict';
+
+const readline = require('readline');
+const { execSync } = require('child_process');
+const path = require('path');
+
+function loadMadge() {
+  try {
+    return require('madge');
+  } catch (e) {
+    // глобальная установка, как её находит npx
+    const root = execSync('npm root -g', { encoding: 'utf8' }).trim();
+    return require(path.join(root, 'madge'));
+  }
+}
+
+function send(message) {
+  process.stdout.write(JSON.stringify(message) + '\n');
+}
+
+let madge;
+try {
+  madge = loadMadge();
+} catch (e) {
+  send({ ready: false, error: String(e && e.message || e) });
+  process.exit(1);
+}
+send({ ready: true });
+
+const lines = readline.createInterface({ input: process.stdin });
+lines.on('line', (line) => {
+  let request;
+  try {
+    request = JSON.parse(line);
+  } catch (e) {
+    return;
+  }
+  madge(request.files, { baseDir: request.baseDir })
+    .then((result) => {
+      const dependencies = [];
+      const graph = result.obj();
+      for (const from of Object.keys(graph)) {
+        for (const to of graph[from]) {
+          dependencies.push([from, to]);
+        }
+      }
+      send({ id: request.id, ok: true, dependencies });
+    })
+    .catch((e) => send({ id: request.id, ok: false, error: String(e && e.message || e) }));
+});
+lines.on('close', () => process.exit(0));
@@ -0,0 +1,42 @@
+# Long-lived pydeps worker, see ToolWorker for the protocol.
+# Request:  {"id": 1, "args": ["/abs/pkg", "--show-dot", "--noshow"]}
+# Response: {"id": 1, "ok": true, "output": "<stdout of pydeps>"}
+import contextlib
+import io
+import json
+import sys
+
+
+def send(message):
+    sys.stdout.write(json.dumps(message) + "\n")
+    sys.stdout.flush()
+
+
+try:
+    from pydeps import cli
+    from pydeps.pydeps import pydeps as run_pydeps
+except Exception as e:  # noqa: BLE001
+    send({"ready": False, "error": str(e)})
+    sys.exit(1)
+
+send({"ready": True})
+
+for line in sys.stdin:
+    try:
+        request = json.loads(line)
+    except ValueError:
+        continue
+    output = io.StringIO()
+    try:
+        args = cli.parse_args(request["args"])
+        # pydeps печатает DOT в stdout, перехватываем его
+        with contextlib.redirect_stdout(output):
+            run_pydeps(**args)
+        send({"id": request["id"], "ok": True, "output": output.getvalue()})
+    except SystemExit as e:
+        if e.code in (None, 0):
+            send({"id": request["id"], "ok": True, "output": output.getvalue()})
+        else:
+            send({"id": request["id"], "ok": False, "error": "exit code %s" % e.code})
+    except Exception as e:  # noqa: BLE001
+        send({"id": request["id"], "ok": False, "error": str(e)})
@@ -0,0 +1,168 @@
+package com.domain.repository_scanner.stack_analysis_core.analyzers;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.Map;
+
+import com.domain.repository_scanner.FileTechnologyStack;
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Parses a synthetic ScanCode report and prints the parse time and the heap it needs.
+ * The report has the structure of {@code scancode --package --json}: packages with their
+ * manifests, dependencies and files, one package per 1000 files.
+ * Run with a fixed heap, e.g. {@code java -Xmx1g ... ScanCodeReportBenchmark [files] [--tree]},
+ * the default is 1 000 000 files. With {@code --tree} the report is also loaded as a map,
+ * the way reports were read before they were streamed.
+ */
+public class ScanCodeReportBenchmark {
+    private static final int FILES_PER_PACKAGE = 1000;
+    private static final int DEPENDENCIES_PER_PACKAGE = 10;
+
+    public static void main(String[] args) throws IOException {
+        int fileCount = 1_000_000;
+        boolean tree = false;
+        for (String arg : args) {
+            if (arg.equals("--tree")) tree = true;
+            else fileCount = Integer.parseInt(arg);
+        }
+
+        File report = Files.createTempFile("scancode-report", ".json").toFile();
+        report.deleteOnExit();
+        writeReport(report, fileCount);
+        System.out.printf("files: %d, report: %.1f MB%n", fileCount, report.length() / 1048576.0);
+
+        ScanCodeAnalyzer.parseResult(report); // загрузка конфига и прогрев
+        long baseline = usedHeap();
+        resetPeaks();
+        long start = System.nanoTime();
+        List<FileTechnologyStack> stacks = ScanCodeAnalyzer.parseResult(report);
+        long time = System.nanoTime() - start;
+        long peak = peakHeap() - baseline;
+        long retained = usedHeap() - baseline;
+        System.out.printf("streaming: %8.0f ms, peak %8.1f MB, result %8.1f MB, %d stacks, %d dependencies%n",
+                time / 1e6, peak / 1048576.0, retained / 1048576.0, stacks.size(),
+                ScanCodeAnalyzer.allProjectDependencies.size());
+        stacks = null;
+
+        if (tree) {
+            baseline = usedHeap();
+            resetPeaks();
+            start = System.nanoTime();
+            Map<?, ?> map = new ObjectMapper().readValue(report, Map.class);
+            time = System.nanoTime() - start;
+            peak = peakHeap() - baseline;
+            System.out.printf("map:       %8.0f ms, peak %8.1f MB, %d fields%n",
+                    time / 1e6, peak / 1048576.0, map.size());
+        }
+    }
+
+    private static void writeReport(File report, int fileCount) throws IOException {
+        int packageCount = Math.max(1, fileCount / FILES_PER_PACKAGE);
+        try (JsonGenerator json = new JsonFactory().createGenerator(report, JsonEncoding.UTF8)) {
+            json.writeStartObject();
+            json.writeObjectFieldStart("headers");
+            json.writeStringField("tool_name", "scancode-toolkit");
+            json.writeEndObject();
+
+            json.writeArrayFieldStart("packages");
+            for (int p = 0; p < packageCount; p++) {
+                json.writeStartObject();
+                json.writeStringField("type", "maven");
+                json.writeStringField("name", "module" + p);
+                json.writeStringField("version", "1.0." + p);
+                json.writeStringField("package_uid", "pkg:maven/module" + p + "@1.0." + p + "?uuid=" + p);
+                json.writeArrayFieldStart("datafile_paths");
+                json.writeString(moduleDirectory(p) + "/pom.xml");
+                json.writeEndArray();
+                json.writeEndObject();
+            }
+            json.writeEndArray();
+
+            json.writeArrayFieldStart("dependencies");
+            for (int p = 0; p < packageCount; p++) {
+                for (int d = 0; d < DEPENDENCIES_PER_PACKAGE; d++) {
+                    json.writeStartObject();
+                    json.writeStringField("purl", "pkg:maven/org.example/lib" + (p * 7 + d) % 500 + "@2." + d);
+                    json.writeStringField("dependency_uid", "dep-" + p + "-" + d);
+                    json.writeStringField("datafile_path", moduleDirectory(p) + "/pom.xml");
+                    json.writeEndObject();
+                }
+            }
+            json.writeEndArray();
+
+            json.writeArrayFieldStart("files");
+            for (int f = 0; f < fileCount; f++) {
+                int p = f / FILES_PER_PACKAGE % packageCount;
+                boolean manifest = f % FILES_PER_PACKAGE == 0;
+                json.writeStartObject();
+                json.writeStringField("path", moduleDirectory(p) + (manifest ? "/pom.xml" : "/src/File" + f + ".java"));
+                json.writeStringField("type", "file");
+                json.writeStringField("name", manifest ? "pom.xml" : "File" + f + ".java");
+                json.writeNumberField("size", 1000 + f % 5000);
+                json.writeStringField("sha1", Integer.toHexString(f * 31 + 7));
+                if (f % 3 == 0) {
+                    json.writeNullField("programming_language");
+                } else {
+                    json.writeStringField("programming_language", "Java");
+                }
+                json.writeArrayFieldStart("for_packages");
+                json.writeString("pkg:maven/module" + p + "@1.0." + p + "?uuid=" + p);
+                json.writeEndArray();
+                json.writeArrayFieldStart("scan_errors");
+                json.writeEndArray();
+                json.writeEndObject();
+            }
+            json.writeEndArray();
+            json.writeEndObject();
+        }
+    }
+
+    private static String moduleDirectory(int p) {
+        return "project/modules/module" + p;
+    }
+
+    private static void resetPeaks() {
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) pool.resetPeakUsage();
+        }
+    }
+
+    /**
+     * Sum of the peaks of the heap pools, an upper bound of the heap used since the last reset.
+     */
+    private static long peakHeap() {
+        long peak = 0;
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) peak += pool.getPeakUsage().getUsed();
+        }
+        return peak;
+    }
+
+    /**
+     * Heap in use after repeated full collections, so only reachable objects are counted.
+     */
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        long used = Long.MAX_VALUE;
+        for (int i = 0; i < 5; i++) {
+            System.gc();
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+            used = Math.min(used, runtime.totalMemory() - runtime.freeMemory());
+        }
+        return used;
+    }
+}
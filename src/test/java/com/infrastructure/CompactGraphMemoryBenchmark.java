@@ -0,0 +1,83 @@
+package com.infrastructure;
+
+import java.nio.file.Path;
+import java.util.Random;
+
+/**
+ * Compares the retained heap of a {@link Graph} with the one of its {@link CompactGraph}.
+ * The edges carry the same data as FileGraph edges: two vertex references and four counters.
+ * Run with a fixed heap, e.g. {@code java -Xmx1g ... CompactGraphMemoryBenchmark [edges] [nodes]},
+ * the defaults are 100 000 edges between 10 000 files.
+ */
+public class CompactGraphMemoryBenchmark {
+
+    private static final class BenchmarkEdge {
+        private final Path from;
+        private final Path to;
+        private boolean mentioned;
+        private int countCommonCommits;
+        private int countCommonChangedLines;
+        private double compoundWeight;
+
+        private BenchmarkEdge(Path from, Path to) {
+            this.from = from;
+            this.to = to;
+        }
+    }
+
+    public static void main(String[] args) {
+        int edgeCount = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+        int nodeCount = args.length > 1 ? Integer.parseInt(args[1]) : 10_000;
+
+        Path[] files = new Path[nodeCount];
+        for (int i = 0; i < nodeCount; i++) {
+            files[i] = Path.of("src/main/java/module" + (i % 100) + "/File" + i + ".java");
+        }
+        long baseline = usedHeap();
+
+        Graph<Path, BenchmarkEdge> graph = new Graph<>();
+        Random random = new Random(42);
+        for (int i = 0; i < edgeCount; i++) {
+            Path from = files[random.nextInt(nodeCount)];
+            Path to = files[random.nextInt(nodeCount)];
+            BenchmarkEdge edge = new BenchmarkEdge(from, to);
+            edge.mentioned = random.nextBoolean();
+            edge.countCommonCommits = random.nextInt(50);
+            edge.countCommonChangedLines = random.nextInt(5000);
+            edge.compoundWeight = random.nextDouble();
+            graph.addEdge(from, to, edge);
+        }
+        long graphHeap = usedHeap() - baseline;
+
+        long start = System.nanoTime();
+        CompactGraph<Path> compact = graph.toCompactGraph(edge -> edge.compoundWeight);
+        long conversion = System.nanoTime() - start;
+        graph = null;
+        long compactHeap = usedHeap() - baseline;
+
+        System.out.printf("edges: %d, nodes: %d%n", compact.edgeCount(), compact.nodeCount());
+        System.out.printf("Graph:        %8.2f MB%n", graphHeap / 1048576.0);
+        System.out.printf("CompactGraph: %8.2f MB (%.1fx smaller)%n",
+                compactHeap / 1048576.0, (double) graphHeap / Math.max(1, compactHeap));
+        System.out.printf("conversion:   %8.2f ms%n", conversion / 1e6);
+    }
+
+    /**
+     * Heap in use after repeated full collections, so only reachable objects are counted.
+     */
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        long used = Long.MAX_VALUE;
+        for (int i = 0; i < 5; i++) {
+            System.gc();
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+            used = Math.min(used, runtime.totalMemory() - runtime.freeMemory());
+        }
+        return used;
+    }
+}
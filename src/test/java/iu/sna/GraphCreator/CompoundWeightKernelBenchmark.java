@@ -0,0 +1,70 @@
+package iu.sna.GraphCreator;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Compares the scalar and the vectorized paths of {@link CompoundWeightKernel}.
+ * Run with {@code java --add-modules jdk.incubator.vector ... CompoundWeightKernelBenchmark [edges]},
+ * the default is 1 000 000 edges. Without the module only the scalar path is measured.
+ * The columns contain zero counters, so the NaN and zero-denominator branches are
+ * exercised, and the results of both paths are checked to be identical.
+ */
+public class CompoundWeightKernelBenchmark {
+  private static final int WARMUP_ROUNDS = 20;
+  private static final int MEASURED_ROUNDS = 50;
+
+  public static void main(String[] args) {
+    int size = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+    CompoundWeightKernel.EdgeColumns columns = randomColumns(size, new Random(42));
+    CompoundWeightKernel kernel = new CompoundWeightKernel(1.0, 1.5, 3.0);
+
+    double[] scalar = new double[size];
+    double[] vector = new double[size];
+    long scalarTime = measure(() -> kernel.computeScalar(columns, scalar, 0));
+    System.out.printf("edges: %d%n", size);
+    System.out.printf("scalar: %8.3f ms%n", scalarTime / 1e6);
+    if (!CompoundWeightKernel.isVectorized()) {
+      System.out.println("vector: jdk.incubator.vector is not available");
+      return;
+    }
+    long vectorTime = measure(() -> kernel.compute(columns, vector));
+    System.out.printf("vector: %8.3f ms (%.2fx)%n", vectorTime / 1e6,
+            (double) scalarTime / vectorTime);
+    System.out.println("identical results: " + Arrays.equals(scalar, vector));
+  }
+
+  /**
+   * Median time of one run after a warmup.
+   */
+  private static long measure(Runnable run) {
+    for (int i = 0; i < WARMUP_ROUNDS; i++) {
+      run.run();
+    }
+    long[] times = new long[MEASURED_ROUNDS];
+    for (int i = 0; i < MEASURED_ROUNDS; i++) {
+      long start = System.nanoTime();
+      run.run();
+      times[i] = System.nanoTime() - start;
+    }
+    Arrays.sort(times);
+    return times[MEASURED_ROUNDS / 2];
+  }
+
+  private static CompoundWeightKernel.EdgeColumns randomColumns(int size, Random random) {
+    CompoundWeightKernel.EdgeColumns columns = CompoundWeightKernel.EdgeColumns.allocate(size);
+    for (int i = 0; i < size; i++) {
+      // каждое десятое ребро без общих коммитов
+      int common = i % 10 == 0 ? 0 : 1 + random.nextInt(20);
+      columns.commonCommits()[i] = common;
+      columns.commonLines()[i] = common * random.nextInt(200);
+      columns.fromCommits()[i] = common + random.nextInt(100);
+      columns.toCommits()[i] = common + random.nextInt(100);
+      columns.fromLines()[i] = random.nextInt(10000);
+      columns.toLines()[i] = random.nextInt(10000);
+      columns.locationCoef()[i] = random.nextDouble();
+      columns.languageDependency()[i] = random.nextInt(4) == 0;
+    }
+    return columns;
+  }
+}